@@ -14,6 +14,56 @@ public class JourneyFactionsConfig implements ConfigData {
     @ConfigEntry.Gui.EnumHandler(option = ConfigEntry.Gui.EnumHandler.EnumDisplayOption.BUTTON)
     public LabelAnchorMode labelAnchorMode = LabelAnchorMode.HULL_CENTROID;
     
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.Gui.EnumHandler(option = ConfigEntry.Gui.EnumHandler.EnumDisplayOption.BUTTON)
+    public PolygonBuilder polygonBuilder = PolygonBuilder.CONTOUR_TRACER;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.Gui.EnumHandler(option = ConfigEntry.Gui.EnumHandler.EnumDisplayOption.BUTTON)
+    public RenderMode renderMode = RenderMode.POLYGONS;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 1, max = 50)
+    public int refreshBudgetMillis = 4;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 1, max = 2000)
+    public int overlayApplyPerTick = 200;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 1, max = 50)
+    public int overlayApplyBudgetMillis = 3;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean asyncGeometry = true;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean incrementalRebuild = true;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 0, max = 512)
+    public int geometryCacheMegabytes = 32;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean viewportCulling = true;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 0, max = 256)
+    public int cullingMarginChunks = 32;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean zoomLevelOfDetail = true;
+    
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.BoundedDiscrete(min = 1, max = 32)
+    public int lodMinCellPixels = 4;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean persistDiscovery = true;
+    
+    @ConfigEntry.Gui.Tooltip
+    public boolean importJourneyMapExplored = true;
+    
     @ConfigEntry.Gui.Tooltip
     @ConfigEntry.BoundedDiscrete(min = 0, max = 1)
     public boolean debugMode = false;
@@ -26,4 +76,18 @@ public class JourneyFactionsConfig implements ConfigData {
         /** Fallback: first claimed chunk center. */
         FIRST_CHUNK_CENTER
     }
+    
+    public enum PolygonBuilder {
+        /** Built-in chunk-border tracer, linear in territory size. */
+        CONTOUR_TRACER,
+        /** JourneyMap's PolygonHelper, traced with the built-in tracer if it fails. */
+        JOURNEYMAP_HELPER
+    }
+    
+    public enum RenderMode {
+        /** One outlined polygon overlay per connected territory region. */
+        POLYGONS,
+        /** One image overlay per 512x512-block region, a pixel per chunk; for very large claim counts. */
+        RASTER_TILES
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package io.arona74.journeyfactions.data;
+
+/**
+ * Inclusive rectangle of chunk coordinates, e.g. the part of the world visible in a map view
+ */
+public final class ChunkArea {
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int maxChunkX;
+    private final int maxChunkZ;
+
+    public ChunkArea(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        this.minChunkX = Math.min(minChunkX, maxChunkX);
+        this.minChunkZ = Math.min(minChunkZ, maxChunkZ);
+        this.maxChunkX = Math.max(minChunkX, maxChunkX);
+        this.maxChunkZ = Math.max(minChunkZ, maxChunkZ);
+    }
+
+    public static ChunkArea fromBlocks(int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        return new ChunkArea(minBlockX >> 4, minBlockZ >> 4, maxBlockX >> 4, maxBlockZ >> 4);
+    }
+
+    public int getMinChunkX() { return minChunkX; }
+    public int getMinChunkZ() { return minChunkZ; }
+    public int getMaxChunkX() { return maxChunkX; }
+    public int getMaxChunkZ() { return maxChunkZ; }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+    }
+
+    public boolean intersects(ChunkArea other) {
+        return other.maxChunkX >= minChunkX && other.minChunkX <= maxChunkX
+            && other.maxChunkZ >= minChunkZ && other.minChunkZ <= maxChunkZ;
+    }
+
+    /**
+     * Grow the area by {@code margin} chunks on every side
+     */
+    public ChunkArea expand(int margin) {
+        return new ChunkArea(minChunkX - margin, minChunkZ - margin, maxChunkX + margin, maxChunkZ + margin);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ChunkArea that)) return false;
+        return minChunkX == that.minChunkX && minChunkZ == that.minChunkZ
+            && maxChunkX == that.maxChunkX && maxChunkZ == that.maxChunkZ;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = minChunkX;
+        result = 31 * result + minChunkZ;
+        result = 31 * result + maxChunkX;
+        result = 31 * result + maxChunkZ;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkArea{" +
+                "[" + minChunkX + ", " + minChunkZ + "] -> " +
+                "[" + maxChunkX + ", " + maxChunkZ + "]" +
+                '}';
+    }
+}
@@ -0,0 +1,660 @@
+package io.arona74.journeyfactions.data;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of chunks stored as 32x32-chunk tiles (the same grid as region files), each tile a
+ * {@code long[16]} bitmap keyed by the packed region coordinate.
+ *
+ * Bit layout inside a tile: local index {@code (localZ << 5) | localX}, so every long holds two
+ * 32-chunk rows and a row can be read as a single int. Dense territories cost 128 bytes per
+ * 1024 chunks instead of one boxed ChunkPos + hash node per chunk.
+ *
+ * A bitmap is either mutable or frozen. Frozen bitmaps never change and their tiles are shared
+ * between versions ({@link #withChunk}/{@link #withoutChunk} copy only the touched tile), so a
+ * consumer can tell a tile is dirty simply because its array is no longer the same instance.
+ * Mutable bitmaps can record the keys of tiles changed in place, see {@link #setTrackDirtyTiles}.
+ */
+public final class ChunkBitmap {
+    public static final int TILE_SHIFT = 5;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    public static final int WORDS_PER_TILE = TILE_SIZE * TILE_SIZE / 64;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    public static final ChunkBitmap EMPTY = new ChunkBitmap().freeze();
+
+    private final Long2ObjectOpenHashMap<long[]> tiles;
+    // Keys of tiles changed in place; null unless someone drains them
+    private LongOpenHashSet dirtyTiles;
+    private int size;
+    private boolean frozen;
+    private Set<ChunkPos> setView;
+
+    /**
+     * Visitor for allocation-free iteration
+     */
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkZ);
+    }
+
+    public ChunkBitmap() {
+        this.tiles = new Long2ObjectOpenHashMap<>();
+    }
+
+    private ChunkBitmap(Long2ObjectOpenHashMap<long[]> tiles, int size) {
+        this.tiles = tiles;
+        this.size = size;
+    }
+
+    public static ChunkBitmap of(Collection<ChunkPos> chunks) {
+        if (chunks instanceof BitmapSetView view && view.bitmap.frozen) {
+            return view.bitmap;
+        }
+        ChunkBitmap bitmap = new ChunkBitmap();
+        for (ChunkPos chunk : chunks) {
+            bitmap.add(chunk.x, chunk.z);
+        }
+        return bitmap.freeze();
+    }
+
+    // Coordinate helpers
+    public static long tileKey(int chunkX, int chunkZ) {
+        return ChunkPos.toLong(chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT);
+    }
+
+    public static int tileX(long tileKey) {
+        return ChunkPos.getPackedX(tileKey);
+    }
+
+    public static int tileZ(long tileKey) {
+        return ChunkPos.getPackedZ(tileKey);
+    }
+
+    private static int bitIndex(int chunkX, int chunkZ) {
+        return ((chunkZ & TILE_MASK) << TILE_SHIFT) | (chunkX & TILE_MASK);
+    }
+
+    /**
+     * Row {@code localZ} of a tile as 32 bits, bit {@code localX} set when claimed
+     */
+    public static int row(long[] tile, int localZ) {
+        return tile == null ? 0 : (int) (tile[localZ >>> 1] >>> ((localZ & 1) << 5));
+    }
+
+    private static void setRow(long[] tile, int localZ, int bits) {
+        int shift = (localZ & 1) << 5;
+        int word = localZ >>> 1;
+        tile[word] = (tile[word] & ~(0xFFFFFFFFL << shift)) | ((bits & 0xFFFFFFFFL) << shift);
+    }
+
+    // Queries
+    public boolean contains(int chunkX, int chunkZ) {
+        long[] tile = tiles.get(tileKey(chunkX, chunkZ));
+        if (tile == null) {
+            return false;
+        }
+        int bit = bitIndex(chunkX, chunkZ);
+        return (tile[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean contains(ChunkPos chunk) {
+        return contains(chunk.x, chunk.z);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Raw tile for a packed region key, or null. Callers must not modify the returned array.
+     */
+    public long[] getTile(long tileKey) {
+        return tiles.get(tileKey);
+    }
+
+    public void forEachTile(LongConsumer consumer) {
+        tiles.keySet().forEach(consumer);
+    }
+
+    public void forEach(ChunkVisitor visitor) {
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            forEachInTile(entry.getLongKey(), entry.getValue(), visitor);
+        }
+    }
+
+    public static void forEachInTile(long tileKey, long[] tile, ChunkVisitor visitor) {
+        int baseX = tileX(tileKey) << TILE_SHIFT;
+        int baseZ = tileZ(tileKey) << TILE_SHIFT;
+        for (int w = 0; w < WORDS_PER_TILE; w++) {
+            long bits = tile[w];
+            while (bits != 0) {
+                int index = (w << 6) | Long.numberOfTrailingZeros(bits);
+                visitor.visit(baseX + (index & TILE_MASK), baseZ + (index >>> TILE_SHIFT));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    // In-place mutation (mutable bitmaps only)
+    public boolean add(int chunkX, int chunkZ) {
+        checkMutable();
+        long key = tileKey(chunkX, chunkZ);
+        long[] tile = tiles.get(key);
+        if (tile == null) {
+            tile = new long[WORDS_PER_TILE];
+            tiles.put(key, tile);
+        }
+        int bit = bitIndex(chunkX, chunkZ);
+        long mask = 1L << bit;
+        if ((tile[bit >>> 6] & mask) != 0) {
+            return false;
+        }
+        tile[bit >>> 6] |= mask;
+        size++;
+        markDirty(key);
+        return true;
+    }
+
+    public boolean remove(int chunkX, int chunkZ) {
+        checkMutable();
+        long key = tileKey(chunkX, chunkZ);
+        long[] tile = tiles.get(key);
+        if (tile == null) {
+            return false;
+        }
+        int bit = bitIndex(chunkX, chunkZ);
+        long mask = 1L << bit;
+        if ((tile[bit >>> 6] & mask) == 0) {
+            return false;
+        }
+        tile[bit >>> 6] &= ~mask;
+        size--;
+        if (isTileEmpty(tile)) {
+            tiles.remove(key);
+        }
+        markDirty(key);
+        return true;
+    }
+
+    /**
+     * OR a whole tile in, visiting each chunk that was not already set. {@code markDirty} false
+     * is for bits restored from storage, which need no saving.
+     */
+    public void orTile(long tileKey, long[] words, boolean markDirty, ChunkVisitor added) {
+        checkMutable();
+        long[] tile = tiles.get(tileKey);
+        long[] fresh = new long[WORDS_PER_TILE];
+        int count = 0;
+        for (int w = 0; w < WORDS_PER_TILE; w++) {
+            fresh[w] = tile != null ? words[w] & ~tile[w] : words[w];
+            count += Long.bitCount(fresh[w]);
+        }
+        if (count == 0) {
+            return;
+        }
+        if (tile == null) {
+            tile = new long[WORDS_PER_TILE];
+            tiles.put(tileKey, tile);
+        }
+        for (int w = 0; w < WORDS_PER_TILE; w++) {
+            tile[w] |= fresh[w];
+        }
+        size += count;
+        if (markDirty) {
+            markDirty(tileKey);
+        }
+        forEachInTile(tileKey, fresh, added);
+    }
+
+    public void clear() {
+        checkMutable();
+        if (dirtyTiles != null) {
+            tiles.keySet().forEach((LongConsumer) dirtyTiles::add);
+        }
+        tiles.clear();
+        size = 0;
+    }
+
+    /**
+     * Start or stop recording the tiles changed in place. Off by default, so bitmaps nobody
+     * drains never pile up keys. Starting counts every current tile as changed; stopping
+     * forgets whatever was not drained yet.
+     */
+    public void setTrackDirtyTiles(boolean track) {
+        checkMutable();
+        if (!track) {
+            dirtyTiles = null;
+        } else if (dirtyTiles == null) {
+            dirtyTiles = new LongOpenHashSet(tiles.keySet());
+        }
+    }
+
+    /**
+     * Hand every tile changed in place since the last drain to the consumer, then forget them
+     */
+    public void drainDirtyTiles(LongConsumer consumer) {
+        if (dirtyTiles != null) {
+            dirtyTiles.forEach(consumer);
+            dirtyTiles.clear();
+        }
+    }
+
+    private void markDirty(long tileKey) {
+        if (dirtyTiles != null) {
+            dirtyTiles.add(tileKey);
+        }
+    }
+
+    // Persistent (copy-on-write) updates for frozen bitmaps
+    public ChunkBitmap withChunk(int chunkX, int chunkZ) {
+        if (contains(chunkX, chunkZ)) {
+            return this;
+        }
+        long key = tileKey(chunkX, chunkZ);
+        long[] old = tiles.get(key);
+        long[] tile = old != null ? old.clone() : new long[WORDS_PER_TILE];
+        int bit = bitIndex(chunkX, chunkZ);
+        tile[bit >>> 6] |= 1L << bit;
+
+        Long2ObjectOpenHashMap<long[]> copy = new Long2ObjectOpenHashMap<>(tiles);
+        copy.put(key, tile);
+        return new ChunkBitmap(copy, size + 1).freeze();
+    }
+
+    public ChunkBitmap withoutChunk(int chunkX, int chunkZ) {
+        if (!contains(chunkX, chunkZ)) {
+            return this;
+        }
+        long key = tileKey(chunkX, chunkZ);
+        long[] tile = tiles.get(key).clone();
+        int bit = bitIndex(chunkX, chunkZ);
+        tile[bit >>> 6] &= ~(1L << bit);
+
+        Long2ObjectOpenHashMap<long[]> copy = new Long2ObjectOpenHashMap<>(tiles);
+        if (isTileEmpty(tile)) {
+            copy.remove(key);
+        } else {
+            copy.put(key, tile);
+        }
+        return new ChunkBitmap(copy, size - 1).freeze();
+    }
+
+    /**
+     * Frozen copy of this bitmap that reuses {@code previous}'s tile arrays wherever their content
+     * is identical, so unchanged tiles keep their identity across versions
+     */
+    public ChunkBitmap sharingEqualTiles(ChunkBitmap previous) {
+        Long2ObjectOpenHashMap<long[]> copy = new Long2ObjectOpenHashMap<>(tiles.size());
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            long[] tile = entry.getValue();
+            long[] old = previous != null ? previous.tiles.get(entry.getLongKey()) : null;
+            copy.put(entry.getLongKey(), old != null && Arrays.equals(old, tile) ? old : tile.clone());
+        }
+        return new ChunkBitmap(copy, size).freeze();
+    }
+
+    /**
+     * Per-tile dirty tracking between two versions of a frozen bitmap: hands every tile key whose
+     * array differs (added, removed or rewritten) to the consumer. Shared tiles are skipped by
+     * reference, so this costs O(tiles), not O(chunks).
+     */
+    public static void forEachChangedTile(ChunkBitmap previous, ChunkBitmap current, LongConsumer consumer) {
+        for (Long2ObjectMap.Entry<long[]> entry : current.tiles.long2ObjectEntrySet()) {
+            if (previous.tiles.get(entry.getLongKey()) != entry.getValue()) {
+                consumer.accept(entry.getLongKey());
+            }
+        }
+        for (Long2ObjectMap.Entry<long[]> entry : previous.tiles.long2ObjectEntrySet()) {
+            if (!current.tiles.containsKey(entry.getLongKey())) {
+                consumer.accept(entry.getLongKey());
+            }
+        }
+    }
+
+    public ChunkBitmap freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Mutable deep copy
+     */
+    public ChunkBitmap mutableCopy() {
+        Long2ObjectOpenHashMap<long[]> copy = new Long2ObjectOpenHashMap<>(tiles.size());
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            copy.put(entry.getLongKey(), entry.getValue().clone());
+        }
+        return new ChunkBitmap(copy, size);
+    }
+
+    /**
+     * Chunks that are missing at least one 4-neighbour, computed a row (32 chunks) at a time
+     */
+    public ChunkBitmap edgeChunks() {
+        ChunkBitmap edges = new ChunkBitmap();
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            long key = entry.getLongKey();
+            long[] tile = entry.getValue();
+            int tx = tileX(key);
+            int tz = tileZ(key);
+            long[] west = tiles.get(ChunkPos.toLong(tx - 1, tz));
+            long[] east = tiles.get(ChunkPos.toLong(tx + 1, tz));
+            long[] north = tiles.get(ChunkPos.toLong(tx, tz - 1));
+            long[] south = tiles.get(ChunkPos.toLong(tx, tz + 1));
+
+            long[] out = new long[WORDS_PER_TILE];
+            for (int z = 0; z < TILE_SIZE; z++) {
+                int bits = row(tile, z);
+                if (bits == 0) {
+                    continue;
+                }
+                int westBits = (bits << 1) | (row(west, z) >>> 31);
+                int eastBits = (bits >>> 1) | (row(east, z) << 31);
+                int northBits = z > 0 ? row(tile, z - 1) : row(north, TILE_MASK);
+                int southBits = z < TILE_MASK ? row(tile, z + 1) : row(south, 0);
+                int interior = westBits & eastBits & northBits & southBits;
+                setRow(out, z, bits & ~interior);
+            }
+            edges.tiles.put(key, out);
+            edges.size += countBits(out);
+        }
+        return edges.freeze();
+    }
+
+    /**
+     * Frozen intersection, computed a word at a time over the tiles present in both bitmaps.
+     * Tiles of the result that equal this bitmap's tile reuse its array.
+     */
+    public ChunkBitmap and(ChunkBitmap other) {
+        Long2ObjectOpenHashMap<long[]> small = tiles.size() <= other.tiles.size() ? tiles : other.tiles;
+        Long2ObjectOpenHashMap<long[]> large = small == tiles ? other.tiles : tiles;
+        Long2ObjectOpenHashMap<long[]> result = new Long2ObjectOpenHashMap<>(small.size());
+        int count = 0;
+        for (Long2ObjectMap.Entry<long[]> entry : small.long2ObjectEntrySet()) {
+            long[] b = large.get(entry.getLongKey());
+            if (b == null) {
+                continue;
+            }
+            long[] a = entry.getValue();
+            long[] out = new long[WORDS_PER_TILE];
+            int bits = 0;
+            for (int w = 0; w < WORDS_PER_TILE; w++) {
+                out[w] = a[w] & b[w];
+                bits += Long.bitCount(out[w]);
+            }
+            if (bits == 0) {
+                continue;
+            }
+            long[] own = tiles.get(entry.getLongKey());
+            result.put(entry.getLongKey(), frozen && Arrays.equals(own, out) ? own : out);
+            count += bits;
+        }
+        return new ChunkBitmap(result, count).freeze();
+    }
+
+    /**
+     * True if both bitmaps share a chunk; stops at the first shared word, touching only the
+     * tiles of the smaller bitmap
+     */
+    public boolean intersects(ChunkBitmap other) {
+        Long2ObjectOpenHashMap<long[]> small = tiles.size() <= other.tiles.size() ? tiles : other.tiles;
+        Long2ObjectOpenHashMap<long[]> large = small == tiles ? other.tiles : tiles;
+        for (Long2ObjectMap.Entry<long[]> entry : small.long2ObjectEntrySet()) {
+            long[] b = large.get(entry.getLongKey());
+            if (b == null) {
+                continue;
+            }
+            long[] a = entry.getValue();
+            for (int w = 0; w < WORDS_PER_TILE; w++) {
+                if ((a[w] & b[w]) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if any chunk of the {@code 2^cellShift}-wide square cell {@code (cellX, cellZ)} is set.
+     * Cells never straddle tiles (cellShift <= 5), so this reads at most one tile's rows.
+     */
+    public boolean anyInCell(int cellX, int cellZ, int cellShift) {
+        return anyInCell(cellX, cellZ, cellShift, null);
+    }
+
+    /**
+     * Same as {@link #anyInCell(int, int, int)}, counting only chunks also set in {@code mask}
+     * (null counts every chunk)
+     */
+    public boolean anyInCell(int cellX, int cellZ, int cellShift, ChunkBitmap mask) {
+        int chunkX = cellX << cellShift;
+        int chunkZ = cellZ << cellShift;
+        long key = tileKey(chunkX, chunkZ);
+        long[] tile = tiles.get(key);
+        long[] maskTile = mask != null ? mask.tiles.get(key) : null;
+        if (tile == null || mask != null && maskTile == null) {
+            return false;
+        }
+        int cellSize = 1 << cellShift;
+        int cellMask = (int) ((1L << cellSize) - 1) << (chunkX & TILE_MASK);
+        int localZ = chunkZ & TILE_MASK;
+        for (int z = localZ; z < localZ + cellSize; z++) {
+            int bits = maskTile != null ? row(tile, z) & row(maskTile, z) : row(tile, z);
+            if ((bits & cellMask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Downsampled copy in cell coordinates: cell {@code (x, z)} is set if any chunk in the
+     * {@code 2^cellShift}-wide square starting at chunk {@code (x << cellShift, z << cellShift)}
+     * is set. Mutable, so callers can keep it current with {@link #anyInCell}.
+     */
+    public ChunkBitmap coarsen(int cellShift) {
+        if (cellShift < 0 || cellShift > TILE_SHIFT) {
+            throw new IllegalArgumentException("cellShift must be between 0 and " + TILE_SHIFT);
+        }
+        ChunkBitmap cells = new ChunkBitmap();
+        int cellSize = 1 << cellShift;
+        int cellsPerTile = TILE_SIZE >> cellShift;
+        int cellMask = (int) ((1L << cellSize) - 1);
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            long[] tile = entry.getValue();
+            int baseX = tileX(entry.getLongKey()) * cellsPerTile;
+            int baseZ = tileZ(entry.getLongKey()) * cellsPerTile;
+            for (int cz = 0; cz < cellsPerTile; cz++) {
+                // OR the cell's rows together, then test each cell's slice of the result
+                int bits = 0;
+                for (int z = cz << cellShift; z < (cz + 1) << cellShift; z++) {
+                    bits |= row(tile, z);
+                }
+                for (int cx = 0; bits != 0 && cx < cellsPerTile; cx++) {
+                    if ((bits & cellMask) != 0) {
+                        cells.add(baseX + cx, baseZ + cz);
+                    }
+                    bits >>>= cellSize;
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * 64-bit content hash: equal chunk sets always give the same value, whatever tile arrays or
+     * insertion order produced them. Costs one pass over the tile words.
+     */
+    public long fingerprint() {
+        long hash = size;
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            long tileHash = mix(entry.getLongKey());
+            for (long word : entry.getValue()) {
+                tileHash = mix(tileHash ^ word);
+            }
+            // Summed so tile iteration order does not matter
+            hash += tileHash;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Same chunks, compared a tile at a time; tiles shared between versions compare by reference
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChunkBitmap)) return false;
+        ChunkBitmap other = (ChunkBitmap) o;
+        if (size != other.size || tiles.size() != other.tiles.size()) {
+            return false;
+        }
+        for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+            long[] tile = entry.getValue();
+            long[] otherTile = other.tiles.get(entry.getLongKey());
+            if (tile != otherTile && !Arrays.equals(tile, otherTile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Derived from {@link #fingerprint()}, so it costs a pass over the tiles
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint());
+    }
+
+    // SplitMix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Read-only Set view. O(1) contains/size; iteration allocates one ChunkPos per element.
+     */
+    public Set<ChunkPos> asSet() {
+        if (!frozen) {
+            return new BitmapSetView(this);
+        }
+        if (setView == null) {
+            setView = new BitmapSetView(this);
+        }
+        return setView;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("ChunkBitmap is frozen");
+        }
+    }
+
+    private static boolean isTileEmpty(long[] tile) {
+        for (long word : tile) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chunks set in one tile's words
+     */
+    public static int countBits(long[] tile) {
+        int count = 0;
+        for (long word : tile) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkBitmap{" +
+                "chunks=" + size +
+                ", tiles=" + tiles.size() +
+                '}';
+    }
+
+    private static final class BitmapSetView extends AbstractSet<ChunkPos> {
+        private final ChunkBitmap bitmap;
+
+        private BitmapSetView(ChunkBitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        public int size() {
+            return bitmap.size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof ChunkPos chunk && bitmap.contains(chunk.x, chunk.z);
+        }
+
+        @Override
+        public Iterator<ChunkPos> iterator() {
+            Iterator<Long2ObjectMap.Entry<long[]>> tileIterator = bitmap.tiles.long2ObjectEntrySet().iterator();
+            return new Iterator<>() {
+                private long tileKey;
+                private long[] tile;
+                private int word;
+                private long bits;
+
+                @Override
+                public boolean hasNext() {
+                    while (bits == 0) {
+                        if (tile != null && word < WORDS_PER_TILE - 1) {
+                            bits = tile[++word];
+                        } else if (tileIterator.hasNext()) {
+                            Long2ObjectMap.Entry<long[]> entry = tileIterator.next();
+                            tileKey = entry.getLongKey();
+                            tile = entry.getValue();
+                            word = 0;
+                            bits = tile[0];
+                        } else {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                @Override
+                public ChunkPos next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int index = (word << 6) | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    return new ChunkPos((tileX(tileKey) << TILE_SHIFT) + (index & TILE_MASK),
+                        (tileZ(tileKey) << TILE_SHIFT) + (index >>> TILE_SHIFT));
+                }
+            };
+        }
+    }
+}
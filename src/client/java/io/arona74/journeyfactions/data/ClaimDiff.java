@@ -0,0 +1,73 @@
+package io.arona74.journeyfactions.data;
+
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Chunks a faction gained and lost in a single update
+ */
+public final class ClaimDiff {
+    public static final ClaimDiff EMPTY = new ClaimDiff(Collections.emptySet(), Collections.emptySet());
+
+    private final Set<ChunkPos> addedChunks;
+    private final Set<ChunkPos> removedChunks;
+
+    public ClaimDiff(Set<ChunkPos> addedChunks, Set<ChunkPos> removedChunks) {
+        this.addedChunks = Collections.unmodifiableSet(addedChunks);
+        this.removedChunks = Collections.unmodifiableSet(removedChunks);
+    }
+
+    public static ClaimDiff added(ChunkPos chunk) {
+        return new ClaimDiff(Collections.singleton(chunk), Collections.emptySet());
+    }
+
+    public static ClaimDiff removed(ChunkPos chunk) {
+        return new ClaimDiff(Collections.emptySet(), Collections.singleton(chunk));
+    }
+
+    /**
+     * Set difference between two versions of a faction's claims, computed a word at a time
+     * over the tiles that actually changed
+     */
+    public static ClaimDiff between(ChunkBitmap before, ChunkBitmap after) {
+        Set<ChunkPos> added = new HashSet<>();
+        Set<ChunkPos> removed = new HashSet<>();
+        ChunkBitmap.forEachChangedTile(before, after, tileKey -> {
+            long[] oldTile = before.getTile(tileKey);
+            long[] newTile = after.getTile(tileKey);
+            long[] gained = new long[ChunkBitmap.WORDS_PER_TILE];
+            long[] lost = new long[ChunkBitmap.WORDS_PER_TILE];
+            for (int w = 0; w < ChunkBitmap.WORDS_PER_TILE; w++) {
+                long oldWord = oldTile != null ? oldTile[w] : 0L;
+                long newWord = newTile != null ? newTile[w] : 0L;
+                gained[w] = newWord & ~oldWord;
+                lost[w] = oldWord & ~newWord;
+            }
+            ChunkBitmap.forEachInTile(tileKey, gained, (x, z) -> added.add(new ChunkPos(x, z)));
+            ChunkBitmap.forEachInTile(tileKey, lost, (x, z) -> removed.add(new ChunkPos(x, z)));
+        });
+
+        if (added.isEmpty() && removed.isEmpty()) {
+            return EMPTY;
+        }
+        return new ClaimDiff(added, removed);
+    }
+
+    public Set<ChunkPos> getAddedChunks() { return addedChunks; }
+    public Set<ChunkPos> getRemovedChunks() { return removedChunks; }
+
+    public boolean isEmpty() {
+        return addedChunks.isEmpty() && removedChunks.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ClaimDiff{" +
+                "added=" + addedChunks.size() +
+                ", removed=" + removedChunks.size() +
+                '}';
+    }
+}
@@ -1,21 +1,37 @@
 package io.arona74.journeyfactions.data;
 
 import io.arona74.journeyfactions.JourneyFactions;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
-import net.minecraft.util.math.ChunkPos;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.server.integrated.IntegratedServer;
+
+import java.nio.file.Path;
 
 /**
  * Tracks which chunks have been discovered by the local client.
  * This allows us to only display faction territory that the player has actually seen.
+ * With persistence enabled, discoveries are kept per server and dimension in a
+ * {@link DiscoveryStore} and restored on the next visit.
  */
 public final class ClientDiscoveryTracker {
 
     private static boolean initialized = false;
-    private static ChunkPos lastChunk;
+
+    // Square marked on the last step; hasLastArea is false until the first sweep
+    private static boolean hasLastArea = false;
+    private static int lastChunkX;
+    private static int lastChunkZ;
     private static int lastRecordedRadius = -1;
 
+    // Store of the world the player is in; null while persistence is off or between sessions
+    private static DiscoveryStore store;
+    private static ClientWorld storeWorld;
+
     private ClientDiscoveryTracker() {
     }
 
@@ -31,44 +47,172 @@ public final class ClientDiscoveryTracker {
                 return;
             }
 
+            updateStore(client);
+
             int radius = Math.max(0, getEffectiveViewDistance(client));
-            ChunkPos currentChunk = new ChunkPos(client.player.getBlockPos());
-            if (!currentChunk.equals(lastChunk) || radius != lastRecordedRadius) {
-                lastChunk = currentChunk;
+            int chunkX = client.player.getBlockX() >> 4;
+            int chunkZ = client.player.getBlockZ() >> 4;
+            if (!hasLastArea || chunkX != lastChunkX || chunkZ != lastChunkZ || radius != lastRecordedRadius) {
+                if (store != null) {
+                    store.request(chunkX - radius, chunkZ - radius, chunkX + radius, chunkZ + radius);
+                }
+                markLoadedAreaDiscovered(chunkX, chunkZ, radius);
+                hasLastArea = true;
+                lastChunkX = chunkX;
+                lastChunkZ = chunkZ;
                 lastRecordedRadius = radius;
-                markLoadedAreaDiscovered(client, currentChunk, radius);
             }
-        });
 
-        // Reset discovered chunks whenever we change servers/worlds
-        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> {
-            lastChunk = null;
-            lastRecordedRadius = -1;
-            JourneyFactions.getFactionManager().resetDiscoveredChunks();
+            if (store != null) {
+                store.tick();
+            }
         });
 
-        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
-            lastChunk = null;
-            lastRecordedRadius = -1;
-            JourneyFactions.getFactionManager().resetDiscoveredChunks();
+        // Hand this tick's discoveries to the listeners, one batch per faction
+        ClientTickEvents.END_CLIENT_TICK.register(client -> JourneyFactions.getFactionManager().flushDiscoveries());
+
+        // Save and reset discovered chunks whenever we change servers/worlds. Run on the client
+        // thread, so the final save never races the tick handler.
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> client.execute(ClientDiscoveryTracker::endSession));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(ClientDiscoveryTracker::endSession));
+
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            endSession();
+            DiscoveryStore.shutdown();
         });
     }
 
-    private static void markLoadedAreaDiscovered(MinecraftClient client, ChunkPos centerChunk, int radius) {
-        // Always ensure we at least mark the center chunk
-        JourneyFactions.getFactionManager().markChunkDiscovered(centerChunk);
+    /**
+     * Store of the world the player is in right now, or null while persistence is off or the
+     * store has not caught up with a world change yet
+     */
+    public static DiscoveryStore getCurrentStore(MinecraftClient client) {
+        return store != null && client.world != null && client.world == storeWorld ? store : null;
+    }
+
+    /**
+     * Load saved discoveries for an area the map is about to show. Does nothing while
+     * persistence is off.
+     */
+    public static void requestArea(ChunkArea area) {
+        if (store != null) {
+            store.request(area.getMinChunkX(), area.getMinChunkZ(), area.getMaxChunkX(), area.getMaxChunkZ());
+        }
+    }
+
+    private static void endSession() {
+        hasLastArea = false;
+        closeStore();
+        JourneyFactions.getFactionManager().resetDiscoveredChunks();
+    }
+
+    /**
+     * Open the store for the current server and dimension, switching stores (and starting over
+     * from that dimension's own discoveries) when the world changes
+     */
+    private static void updateStore(MinecraftClient client) {
+        boolean enabled = JourneyFactions.CONFIG.persistDiscovery;
+        if (store != null && (!enabled || client.world != storeWorld)) {
+            closeStore();
+            if (enabled) {
+                hasLastArea = false;
+                JourneyFactions.getFactionManager().resetDiscoveredChunks();
+            }
+        }
+        if (enabled && store == null) {
+            storeWorld = client.world;
+            store = new DiscoveryStore(getStoreDirectory(client), JourneyFactions.getFactionManager());
+        }
+    }
+
+    private static void closeStore() {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+        storeWorld = null;
+    }
+
+    /**
+     * journeyfactions/discovery/&lt;server&gt;/&lt;dimension&gt; under the game directory
+     */
+    private static Path getStoreDirectory(MinecraftClient client) {
+        String server;
+        IntegratedServer integratedServer = client.getServer();
+        ServerInfo serverInfo = client.getCurrentServerEntry();
+        if (integratedServer != null) {
+            server = "singleplayer_" + integratedServer.getSaveProperties().getLevelName();
+        } else if (serverInfo != null) {
+            server = serverInfo.address;
+        } else {
+            server = "unknown";
+        }
+        String dimension = client.world.getRegistryKey().getValue().toString();
+
+        return FabricLoader.getInstance().getGameDir()
+            .resolve(JourneyFactions.MOD_ID)
+            .resolve("discovery")
+            .resolve(toFileName(server))
+            .resolve(toFileName(dimension));
+    }
+
+    private static String toFileName(String name) {
+        // No leading dot, so an address can never name "." or ".."
+        return name.replaceAll("[^A-Za-z0-9._-]", "_").replaceFirst("^\\.", "_");
+    }
+
+    /**
+     * Mark the square of the given radius around the center. A step to a neighbouring chunk only
+     * exposes a strip along one or two edges, so when the previous square overlaps the new one
+     * with the same radius just the part outside it is marked. Teleports, radius changes and a
+     * discovery reset (the previous center no longer discovered) sweep the whole square.
+     */
+    private static void markLoadedAreaDiscovered(int centerX, int centerZ, int radius) {
+        ClientFactionManager manager = JourneyFactions.getFactionManager();
 
-        if (radius <= 0) {
+        boolean incremental = hasLastArea
+            && radius == lastRecordedRadius
+            && Math.abs(centerX - lastChunkX) <= 2 * radius
+            && Math.abs(centerZ - lastChunkZ) <= 2 * radius
+            && manager.isChunkDiscovered(lastChunkX, lastChunkZ);
+
+        if (!incremental) {
+            markRect(manager, centerX - radius, centerZ - radius, centerX + radius, centerZ + radius);
             return;
         }
 
-        for (int dx = -radius; dx <= radius; dx++) {
-            for (int dz = -radius; dz <= radius; dz++) {
-                if (dx == 0 && dz == 0) {
-                    continue; // already marked
-                }
-                ChunkPos nearby = new ChunkPos(centerChunk.x + dx, centerChunk.z + dz);
-                JourneyFactions.getFactionManager().markChunkDiscovered(nearby);
+        int minX = centerX - radius;
+        int minZ = centerZ - radius;
+        int maxX = centerX + radius;
+        int maxZ = centerZ + radius;
+        int oldMinX = lastChunkX - radius;
+        int oldMinZ = lastChunkZ - radius;
+        int oldMaxX = lastChunkX + radius;
+        int oldMaxZ = lastChunkZ + radius;
+
+        // Columns left or right of the old square, full height
+        if (minX < oldMinX) {
+            markRect(manager, minX, minZ, oldMinX - 1, maxZ);
+        }
+        if (maxX > oldMaxX) {
+            markRect(manager, oldMaxX + 1, minZ, maxX, maxZ);
+        }
+
+        // Rows above or below the old square, only across the columns it shares
+        int sharedMinX = Math.max(minX, oldMinX);
+        int sharedMaxX = Math.min(maxX, oldMaxX);
+        if (minZ < oldMinZ) {
+            markRect(manager, sharedMinX, minZ, sharedMaxX, oldMinZ - 1);
+        }
+        if (maxZ > oldMaxZ) {
+            markRect(manager, sharedMinX, oldMaxZ + 1, sharedMaxX, maxZ);
+        }
+    }
+
+    private static void markRect(ClientFactionManager manager, int minX, int minZ, int maxX, int maxZ) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                manager.markChunkDiscovered(x, z);
             }
         }
     }
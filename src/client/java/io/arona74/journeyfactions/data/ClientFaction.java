@@ -13,7 +13,8 @@ public class ClientFaction {
     private final String id;
     private String name;
     private String displayName;
-    private final Set<ChunkPos> claimedChunks;
+    // Copy-on-write: always a frozen bitmap, replaced (never mutated) by writers
+    private volatile ChunkBitmap claimedChunks;
     private Color color;
     private FactionType type;
     private long lastUpdated;
@@ -29,7 +30,7 @@ public class ClientFaction {
         this.id = id;
         this.name = name;
         this.displayName = name;
-        this.claimedChunks = new HashSet<>();
+        this.claimedChunks = ChunkBitmap.EMPTY;
         this.color = null; // Will be set from server data
         this.type = FactionType.PLAYER;
         this.lastUpdated = System.currentTimeMillis();
@@ -39,7 +40,17 @@ public class ClientFaction {
     public String getId() { return id; }
     public String getName() { return name; }
     public String getDisplayName() { return displayName; }
-    public Set<ChunkPos> getClaimedChunks() { return new HashSet<>(claimedChunks); }
+    public Set<ChunkPos> getClaimedChunks() { return new HashSet<>(claimedChunks.asSet()); }
+    /**
+     * Read-only snapshot of the claimed chunks. O(1), no copy; later writes publish a new
+     * snapshot and never affect one already handed out.
+     */
+    public Set<ChunkPos> getClaimedChunksView() { return claimedChunks.asSet(); }
+    /**
+     * Same snapshot as {@link #getClaimedChunksView()} as a tiled bitmap. Successive snapshots
+     * share unchanged tiles, see {@link ChunkBitmap#forEachChangedTile}.
+     */
+    public ChunkBitmap getClaimBitmap() { return claimedChunks; }
     public Color getColor() { return color; }
     public FactionType getType() { return type; }
     public long getLastUpdated() { return lastUpdated; }
@@ -67,23 +78,28 @@ public class ClientFaction {
 
     // Chunk management
     public void addClaimedChunk(ChunkPos chunk) {
-        claimedChunks.add(chunk);
-        this.lastUpdated = System.currentTimeMillis();
+        publishClaimedChunks(claimedChunks.withChunk(chunk.x, chunk.z));
     }
 
     public void removeClaimedChunk(ChunkPos chunk) {
-        claimedChunks.remove(chunk);
-        this.lastUpdated = System.currentTimeMillis();
+        publishClaimedChunks(claimedChunks.withoutChunk(chunk.x, chunk.z));
     }
 
     public void setClaimedChunks(Set<ChunkPos> chunks) {
-        this.claimedChunks.clear();
-        this.claimedChunks.addAll(chunks);
+        // Keep the previous snapshot's tile instances where nothing changed
+        publishClaimedChunks(ChunkBitmap.of(chunks).sharingEqualTiles(claimedChunks));
+    }
+
+    private void publishClaimedChunks(ChunkBitmap chunks) {
+        if (chunks == claimedChunks) {
+            return;
+        }
+        this.claimedChunks = chunks;
         this.lastUpdated = System.currentTimeMillis();
     }
 
     public boolean hasChunk(ChunkPos chunk) {
-        return claimedChunks.contains(chunk);
+        return claimedChunks.contains(chunk.x, chunk.z);
     }
 
     public int getClaimedChunkCount() {
@@ -1,27 +1,67 @@
 package io.arona74.journeyfactions.data;
 
 import io.arona74.journeyfactions.JourneyFactions;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.util.math.ChunkPos;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * Manages faction data on the client side
  */
 public class ClientFactionManager {
     private final Map<String, ClientFaction> factions = new ConcurrentHashMap<>();
-    private final Map<ChunkPos, String> chunkToFaction = new ConcurrentHashMap<>();
+    // Chunk ownership index: packed ChunkPos.toLong() -> compact faction handle (see factionHandles).
+    // Only touched from the client thread (network packets are applied via client.execute).
+    private final Long2IntOpenHashMap chunkOwners = new Long2IntOpenHashMap();
+    private final List<String> factionHandles = new ArrayList<>();
+    private final Object2IntOpenHashMap<String> handlesByFactionId = new Object2IntOpenHashMap<>();
+    // Chunks mapped to each handle, and handles of gone factions waiting to be reused
+    private final IntArrayList handleChunkCounts = new IntArrayList();
+    private final IntArrayList freeHandles = new IntArrayList();
+    // Chunks setChunkOwner mapped to a faction whose data hadn't arrived, so they are missing from
+    // its claim bitmap and a claim diff would never release them; settled when the faction is added
+    private final Int2ObjectOpenHashMap<LongOpenHashSet> unsyncedChunks = new Int2ObjectOpenHashMap<>();
+    // Spatial index: 32x32-chunk tile key -> (faction handle -> chunks that faction owns in the tile)
+    private final Long2ObjectOpenHashMap<Int2IntOpenHashMap> ownersByTile = new Long2ObjectOpenHashMap<>();
     private final Set<FactionUpdateListener> listeners = new HashSet<>();
-    private final Set<ChunkPos> discoveredChunks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Chunks the local player has seen, one bit each, per server and dimension (see
+    // ClientDiscoveryTracker). Written on the client thread only; a reset swaps in a fresh bitmap.
+    private volatile ChunkBitmap discoveredChunks = new ChunkBitmap();
+    // Whether newly discovered tiles are recorded for saving (only while a DiscoveryStore is open)
+    private boolean trackNewDiscoveries;
     private final Set<ChunkDiscoveryListener> discoveryListeners = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Claimed chunks discovered since the last flush, by owning faction ID (client thread only)
+    private final Map<String, List<ChunkPos>> pendingDiscoveries = new LinkedHashMap<>();
+
+    // Batching: while batchDepth > 0 faction updates are merged here and emitted on commit
+    private int batchDepth = 0;
+    private final Map<String, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
     
     // Special faction IDs
     public static final String WILDERNESS_ID = "wilderness";
     public static final String SAFEZONE_ID = "safezone";
     public static final String WARZONE_ID = "warzone";
 
+    // Handle stored in chunkOwners for chunks nobody owns
+    private static final int NO_OWNER = 0;
+
     public ClientFactionManager() {
+        chunkOwners.defaultReturnValue(NO_OWNER);
+        handlesByFactionId.defaultReturnValue(NO_OWNER);
+        resetFactionHandles();
+
         // Initialize default factions
         initializeDefaultFactions();
     }
@@ -50,36 +90,42 @@ public class ClientFactionManager {
     public void addOrUpdateFaction(ClientFaction faction) {
         String factionId = faction.getId();
         ClientFaction existing = factions.get(factionId);
+        ClaimDiff diff;
         
         if (existing != null) {
             // Update existing faction
+            ChunkBitmap previousClaims = existing.getClaimBitmap();
             existing.setName(faction.getName());
             existing.setDisplayName(faction.getDisplayName());
             existing.setColor(faction.getColor());
             existing.setType(faction.getType());
-            existing.setClaimedChunks(faction.getClaimedChunks());
+            existing.setClaimedChunks(faction.getClaimedChunksView());
             
-            // Update chunk mapping
-            updateChunkMapping(existing);
+            // Update chunk mapping for the chunks that actually changed
+            diff = updateChunkMapping(existing, previousClaims);
             
-            JourneyFactions.debugLog("Updated faction: {}", factionId);
+            JourneyFactions.debugLog("Updated faction: {} ({})", factionId, diff);
         } else {
             // Add new faction
             factions.put(factionId, faction);
-            updateChunkMapping(faction);
+            diff = updateChunkMapping(faction, ChunkBitmap.EMPTY);
             
             JourneyFactions.debugLog("Added new faction: {} ({})", faction.getName(), factionId);
         }
 
         // Notify listeners
-        notifyFactionUpdated(faction);
+        notifyFactionUpdated(existing != null ? existing : faction, diff);
     }
 
     public void removeFaction(String factionId) {
         ClientFaction faction = factions.remove(factionId);
         if (faction != null) {
-            // Remove chunk mappings
-            faction.getClaimedChunks().forEach(chunkToFaction::remove);
+            // Remove chunk mappings still pointing at this faction
+            int handle = handlesByFactionId.getInt(factionId);
+            for (ChunkPos chunk : faction.getClaimedChunksView()) {
+                releaseOwner(chunk.toLong(), handle);
+            }
+            freeHandleIfUnused(handle);
             
             JourneyFactions.debugLog("Removed faction: {}", factionId);
             notifyFactionRemoved(faction);
@@ -102,53 +148,398 @@ public class ClientFactionManager {
 
     // Chunk-based queries
     public ClientFaction getFactionAt(ChunkPos chunk) {
-        String factionId = chunkToFaction.get(chunk);
+        return getFactionAt(chunk.x, chunk.z);
+    }
+
+    /**
+     * Allocation-free variant of {@link #getFactionAt(ChunkPos)} for hot loops
+     */
+    public ClientFaction getFactionAt(int chunkX, int chunkZ) {
+        String factionId = getOwnerId(ChunkPos.toLong(chunkX, chunkZ));
         return factionId != null ? factions.get(factionId) : getFaction(WILDERNESS_ID);
     }
 
     public void setChunkOwner(ChunkPos chunk, String factionId) {
+        long packedChunk = chunk.toLong();
+
         // Remove from previous owner
-        String previousFactionId = chunkToFaction.get(chunk);
+        String previousFactionId = getOwnerId(packedChunk);
+        if (Objects.equals(previousFactionId, factionId)) {
+            return; // ownership unchanged
+        }
         if (previousFactionId != null) {
             ClientFaction previousFaction = factions.get(previousFactionId);
             if (previousFaction != null) {
                 previousFaction.removeClaimedChunk(chunk);
-                notifyFactionUpdated(previousFaction);
+                notifyFactionUpdated(previousFaction, ClaimDiff.removed(chunk));
             }
         }
 
         // Add to new owner
         if (factionId != null && !factionId.equals(WILDERNESS_ID)) {
-            chunkToFaction.put(chunk, factionId);
+            int handle = getOrCreateHandle(factionId);
+            assignOwner(packedChunk, handle);
             ClientFaction newFaction = factions.get(factionId);
             if (newFaction != null) {
                 newFaction.addClaimedChunk(chunk);
-                notifyFactionUpdated(newFaction);
+                notifyFactionUpdated(newFaction, ClaimDiff.added(chunk));
+            } else {
+                unsyncedChunks.computeIfAbsent(handle, key -> new LongOpenHashSet()).add(packedChunk);
             }
         } else {
-            chunkToFaction.remove(chunk);
+            releaseOwner(packedChunk, chunkOwners.get(packedChunk));
         }
 
         // Notify about chunk change
         notifyChunkChanged(chunk, previousFactionId, factionId);
     }
 
-    private void updateChunkMapping(ClientFaction faction) {
-        // Remove old mappings for this faction
-        chunkToFaction.entrySet().removeIf(entry -> 
-            entry.getValue().equals(faction.getId()));
-        
+    /**
+     * Apply the difference between a faction's previous and current claims to the ownership index.
+     * Only chunks that changed owner are touched, so a full sync costs O(claims) rather than
+     * O(factions x claimed chunks in the world).
+     */
+    private ClaimDiff updateChunkMapping(ClientFaction faction, ChunkBitmap previousClaims) {
+        int handle = getOrCreateHandle(faction.getId());
+        ChunkBitmap claims = faction.getClaimBitmap();
+
+        // Chunks claimed for this faction before its data arrived were never in previousClaims
+        LongOpenHashSet unsynced = unsyncedChunks.remove(handle);
+        if (unsynced != null) {
+            unsynced.forEach((long packedChunk) -> {
+                if (!claims.contains(ChunkPos.getPackedX(packedChunk), ChunkPos.getPackedZ(packedChunk))) {
+                    releaseOwner(packedChunk, handle);
+                }
+            });
+        }
+
+        ClaimDiff diff = ClaimDiff.between(previousClaims, claims);
+
+        // Drop mappings this faction lost (unless another faction took the chunk since)
+        for (ChunkPos chunk : diff.getRemovedChunks()) {
+            releaseOwner(chunk.toLong(), handle);
+        }
+
         // Add new mappings
-        for (ChunkPos chunk : faction.getClaimedChunks()) {
-            chunkToFaction.put(chunk, faction.getId());
+        for (ChunkPos chunk : diff.getAddedChunks()) {
+            assignOwner(chunk.toLong(), handle);
+        }
+        return diff;
+    }
+
+    // Ownership writes go through these two so the spatial index stays in step with chunkOwners
+    private void assignOwner(long packedChunk, int handle) {
+        int previous = chunkOwners.put(packedChunk, handle);
+        if (previous != handle) {
+            long tileKey = tileKeyOf(packedChunk);
+            if (previous != NO_OWNER) {
+                adjustTileCount(tileKey, previous, -1);
+            }
+            adjustTileCount(tileKey, handle, 1);
+        }
+    }
+
+    private void releaseOwner(long packedChunk, int handle) {
+        if (handle != NO_OWNER && chunkOwners.remove(packedChunk, handle)) {
+            adjustTileCount(tileKeyOf(packedChunk), handle, -1);
+        }
+    }
+
+    private void adjustTileCount(long tileKey, int handle, int delta) {
+        int chunks = handleChunkCounts.getInt(handle) + delta;
+        handleChunkCounts.set(handle, chunks);
+        if (chunks == 0) {
+            freeHandleIfUnused(handle);
+        }
+
+        Int2IntOpenHashMap owners = ownersByTile.get(tileKey);
+        if (owners == null) {
+            owners = new Int2IntOpenHashMap(2);
+            ownersByTile.put(tileKey, owners);
+        }
+        if (owners.addTo(handle, delta) + delta <= 0) {
+            owners.remove(handle);
+            if (owners.isEmpty()) {
+                ownersByTile.remove(tileKey);
+            }
+        }
+    }
+
+    private static long tileKeyOf(long packedChunk) {
+        return ChunkBitmap.tileKey(ChunkPos.getPackedX(packedChunk), ChunkPos.getPackedZ(packedChunk));
+    }
+
+    // Range queries
+    public interface ClaimVisitor {
+        void visit(int chunkX, int chunkZ, ClientFaction faction);
+    }
+
+    /**
+     * Visit every claimed chunk inside the inclusive chunk rectangle. Cost is proportional to the
+     * 32x32 tiles overlapping the area plus the claims found there, not to the world's claim count.
+     */
+    public void forEachClaimInArea(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, ClaimVisitor visitor) {
+        ChunkArea area = new ChunkArea(minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        forEachTileInArea(area, (tileKey, owners) -> {
+            IntIterator handles = owners.keySet().iterator();
+            while (handles.hasNext()) {
+                int handle = handles.nextInt();
+                ClientFaction faction = factions.get(factionHandles.get(handle));
+                if (faction == null) {
+                    continue;
+                }
+                long[] tile = faction.getClaimBitmap().getTile(tileKey);
+                if (tile == null) {
+                    continue;
+                }
+                // Chunks mapped to a faction are always in its bitmap, so equal counts mean the
+                // whole tile is still its own and no chunk needs looking up
+                boolean ownsWholeTile = owners.get(handle) == ChunkBitmap.countBits(tile);
+                forEachBitInArea(tileKey, tile, area, (x, z) -> {
+                    if (ownsWholeTile || chunkOwners.get(ChunkPos.toLong(x, z)) == handle) {
+                        visitor.visit(x, z, faction);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Factions owning at least one chunk inside {@code bounds}. A tile that lies wholly inside
+     * the area is answered from its per-faction chunk counts alone; only tiles cut by the edge of
+     * the area look at individual chunks, so the cost doesn't grow with the claim count.
+     */
+    public Set<ClientFaction> getFactionsIntersecting(ChunkArea bounds) {
+        Set<ClientFaction> result = new LinkedHashSet<>();
+        forEachTileInArea(bounds, (tileKey, owners) -> {
+            int baseX = ChunkBitmap.tileX(tileKey) << ChunkBitmap.TILE_SHIFT;
+            int baseZ = ChunkBitmap.tileZ(tileKey) << ChunkBitmap.TILE_SHIFT;
+            boolean tileInside = bounds.contains(baseX, baseZ)
+                && bounds.contains(baseX + ChunkBitmap.TILE_SIZE - 1, baseZ + ChunkBitmap.TILE_SIZE - 1);
+
+            IntIterator handles = owners.keySet().iterator();
+            while (handles.hasNext()) {
+                int handle = handles.nextInt();
+                ClientFaction faction = factions.get(factionHandles.get(handle));
+                if (faction == null || result.contains(faction)) {
+                    continue;
+                }
+                if (tileInside || ownsChunkInArea(tileKey, handle, faction, bounds)) {
+                    result.add(faction);
+                }
+            }
+        });
+        return result;
+    }
+
+    private interface TileVisitor {
+        void visit(long tileKey, Int2IntOpenHashMap owners);
+    }
+
+    private void forEachTileInArea(ChunkArea area, TileVisitor visitor) {
+        int minTileX = area.getMinChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int minTileZ = area.getMinChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        int maxTileX = area.getMaxChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int maxTileZ = area.getMaxChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        long tilesInArea = (long) (maxTileX - minTileX + 1) * (maxTileZ - minTileZ + 1);
+
+        if (tilesInArea > ownersByTile.size()) {
+            // Huge area (e.g. zoomed far out): walk the populated tiles instead of the grid
+            for (Long2ObjectMap.Entry<Int2IntOpenHashMap> entry : ownersByTile.long2ObjectEntrySet()) {
+                int tileX = ChunkBitmap.tileX(entry.getLongKey());
+                int tileZ = ChunkBitmap.tileZ(entry.getLongKey());
+                if (tileX >= minTileX && tileX <= maxTileX && tileZ >= minTileZ && tileZ <= maxTileZ) {
+                    visitor.visit(entry.getLongKey(), entry.getValue());
+                }
+            }
+            return;
+        }
+
+        for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                long tileKey = ChunkPos.toLong(tileX, tileZ);
+                Int2IntOpenHashMap owners = ownersByTile.get(tileKey);
+                if (owners != null) {
+                    visitor.visit(tileKey, owners);
+                }
+            }
+        }
+    }
+
+    private static void forEachBitInArea(long tileKey, long[] tile, ChunkArea area, ChunkBitmap.ChunkVisitor visitor) {
+        int baseX = ChunkBitmap.tileX(tileKey) << ChunkBitmap.TILE_SHIFT;
+        int baseZ = ChunkBitmap.tileZ(tileKey) << ChunkBitmap.TILE_SHIFT;
+        int fromZ = Math.max(area.getMinChunkZ(), baseZ) - baseZ;
+        int toZ = Math.min(area.getMaxChunkZ(), baseZ + ChunkBitmap.TILE_SIZE - 1) - baseZ;
+        int columns = columnMask(baseX, area);
+        for (int z = fromZ; z <= toZ; z++) {
+            int bits = ChunkBitmap.row(tile, z) & columns;
+            while (bits != 0) {
+                visitor.visit(baseX + Integer.numberOfTrailingZeros(bits), baseZ + z);
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private boolean ownsChunkInArea(long tileKey, int handle, ClientFaction faction, ChunkArea area) {
+        long[] tile = faction.getClaimBitmap().getTile(tileKey);
+        if (tile == null) {
+            return false;
+        }
+        boolean ownsWholeTile = ownersByTile.get(tileKey).get(handle) == ChunkBitmap.countBits(tile);
+        int baseX = ChunkBitmap.tileX(tileKey) << ChunkBitmap.TILE_SHIFT;
+        int baseZ = ChunkBitmap.tileZ(tileKey) << ChunkBitmap.TILE_SHIFT;
+        int fromZ = Math.max(area.getMinChunkZ(), baseZ) - baseZ;
+        int toZ = Math.min(area.getMaxChunkZ(), baseZ + ChunkBitmap.TILE_SIZE - 1) - baseZ;
+        int columns = columnMask(baseX, area);
+        for (int z = fromZ; z <= toZ; z++) {
+            int bits = ChunkBitmap.row(tile, z) & columns;
+            while (bits != 0) {
+                // The claim bitmap can still hold a chunk another faction has taken since
+                if (ownsWholeTile || chunkOwners.get(ChunkPos.toLong(baseX + Integer.numberOfTrailingZeros(bits), baseZ + z)) == handle) {
+                    return true;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return false;
+    }
+
+    // Bits of a tile row whose chunk X lies inside the area
+    private static int columnMask(int baseX, ChunkArea area) {
+        int fromX = Math.max(area.getMinChunkX(), baseX) - baseX;
+        int toX = Math.min(area.getMaxChunkX(), baseX + ChunkBitmap.TILE_SIZE - 1) - baseX;
+        if (fromX > toX) {
+            return 0;
+        }
+        return (int) (((1L << (toX - fromX + 1)) - 1) << fromX);
+    }
+
+    // Faction handles: small ints stored in chunkOwners instead of one String reference per chunk
+    private int getOrCreateHandle(String factionId) {
+        int handle = handlesByFactionId.getInt(factionId);
+        if (handle == NO_OWNER) {
+            if (!freeHandles.isEmpty()) {
+                handle = freeHandles.popInt();
+                factionHandles.set(handle, factionId);
+            } else {
+                handle = factionHandles.size();
+                factionHandles.add(factionId);
+                handleChunkCounts.add(0);
+            }
+            handlesByFactionId.put(factionId, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Recycle a handle once no chunk maps to it and its faction is gone, so a server that keeps
+     * creating and disbanding factions doesn't grow the handle table forever
+     */
+    private void freeHandleIfUnused(int handle) {
+        if (handle == NO_OWNER || handleChunkCounts.getInt(handle) != 0) {
+            return;
+        }
+        String factionId = factionHandles.get(handle);
+        if (factionId == null || factions.containsKey(factionId)) {
+            return;
+        }
+        handlesByFactionId.removeInt(factionId);
+        factionHandles.set(handle, null);
+        unsyncedChunks.remove(handle);
+        freeHandles.add(handle);
+    }
+
+    private String getOwnerId(long packedChunk) {
+        int handle = chunkOwners.get(packedChunk);
+        return handle != NO_OWNER ? factionHandles.get(handle) : null;
+    }
+
+    private void resetFactionHandles() {
+        factionHandles.clear();
+        handlesByFactionId.clear();
+        handleChunkCounts.clear();
+        freeHandles.clear();
+        unsyncedChunks.clear();
+        factionHandles.add(null); // reserve NO_OWNER
+        handleChunkCounts.add(0);
+    }
+
+    // Batched mutations
+    /**
+     * Start buffering faction update events. Batches nest; events are only emitted once the
+     * outermost batch is committed, as one coalesced {@code onFactionUpdated} per affected faction.
+     * Removal and clear events are still delivered immediately.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void commitBatch() {
+        if (batchDepth == 0) {
+            JourneyFactions.LOGGER.warn("commitBatch() called without a matching beginBatch()");
+            return;
+        }
+        if (--batchDepth > 0) {
+            return;
+        }
+
+        List<PendingUpdate> updates = new ArrayList<>(pendingUpdates.values());
+        pendingUpdates.clear();
+        JourneyFactions.debugLog("Committing faction batch: {} factions affected", updates.size());
+        for (PendingUpdate update : updates) {
+            notifyFactionUpdated(update.faction, update.toDiff());
+        }
+    }
+
+    /**
+     * Run {@code mutations} inside a batch, committing even if it throws
+     */
+    public void applyBatch(Consumer<ClientFactionManager> mutations) {
+        beginBatch();
+        try {
+            mutations.accept(this);
+        } finally {
+            commitBatch();
+        }
+    }
+
+    // Net claim changes of one faction inside a batch; an add followed by a remove cancels out
+    private static final class PendingUpdate {
+        private ClientFaction faction;
+        private final Set<ChunkPos> added = new HashSet<>();
+        private final Set<ChunkPos> removed = new HashSet<>();
+
+        private PendingUpdate(ClientFaction faction) {
+            this.faction = faction;
+        }
+
+        private void merge(ClientFaction latest, ClaimDiff diff) {
+            this.faction = latest;
+            for (ChunkPos chunk : diff.getAddedChunks()) {
+                if (!removed.remove(chunk)) {
+                    added.add(chunk);
+                }
+            }
+            for (ChunkPos chunk : diff.getRemovedChunks()) {
+                if (!added.remove(chunk)) {
+                    removed.add(chunk);
+                }
+            }
+        }
+
+        private ClaimDiff toDiff() {
+            return added.isEmpty() && removed.isEmpty() ? ClaimDiff.EMPTY : new ClaimDiff(added, removed);
         }
     }
 
     // Data management
     public void clear() {
         factions.clear();
-        chunkToFaction.clear();
-        resetDiscoveredChunks();
+        chunkOwners.clear();
+        chunkOwners.trim();
+        ownersByTile.clear();
+        resetFactionHandles();
         initializeDefaultFactions();
 
         JourneyFactions.debugLog("Cleared all faction data");
@@ -177,6 +568,16 @@ public class ClientFactionManager {
     // Event system
     public interface FactionUpdateListener {
         void onFactionUpdated(ClientFaction faction);
+
+        /**
+         * Same as {@link #onFactionUpdated(ClientFaction)} but also carries the chunks that were
+         * added to / removed from the faction, for listeners that can update incrementally.
+         * An empty diff means only metadata (name, color, type) changed.
+         */
+        default void onFactionUpdated(ClientFaction faction, ClaimDiff diff) {
+            onFactionUpdated(faction);
+        }
+
         void onFactionRemoved(ClientFaction faction);
         void onChunkChanged(ChunkPos chunk, String oldFactionId, String newFactionId);
         void onDataCleared();
@@ -184,6 +585,23 @@ public class ClientFactionManager {
 
     public interface ChunkDiscoveryListener {
         void onChunkDiscovered(ChunkPos chunk, ClientFaction owningFaction);
+
+        /**
+         * Every chunk of one faction discovered since the last flush, delivered once per tick.
+         * Only claimed chunks are reported. Defaults to one {@link #onChunkDiscovered} per chunk.
+         */
+        default void onChunksDiscovered(ClientFaction owningFaction, Collection<ChunkPos> chunks) {
+            for (ChunkPos chunk : chunks) {
+                onChunkDiscovered(chunk, owningFaction);
+            }
+        }
+
+        /**
+         * Every chunk was forgotten at once (new session or dimension); anything drawn from the
+         * old discoveries is stale
+         */
+        default void onDiscoveriesReset() {
+        }
     }
 
     public void addListener(FactionUpdateListener listener) {
@@ -203,7 +621,14 @@ public class ClientFactionManager {
     }
 
     public boolean isChunkDiscovered(ChunkPos chunk) {
-        return discoveredChunks.contains(chunk);
+        return discoveredChunks.contains(chunk.x, chunk.z);
+    }
+
+    /**
+     * Allocation-free variant of {@link #isChunkDiscovered(ChunkPos)} for hot loops
+     */
+    public boolean isChunkDiscovered(int chunkX, int chunkZ) {
+        return discoveredChunks.contains(chunkX, chunkZ);
     }
 
     public void markChunkDiscovered(ChunkPos chunk) {
@@ -211,37 +636,127 @@ public class ClientFactionManager {
             return;
         }
 
-        if (discoveredChunks.add(chunk)) {
-            JourneyFactions.debugLog("Chunk discovered by client: {}", chunk);
-            notifyChunkDiscovered(chunk);
+        markChunkDiscovered(chunk.x, chunk.z);
+    }
+
+    /**
+     * Allocation-free unless the chunk is new and claimed: only those are queued for the
+     * listeners, who receive them on the next {@link #flushDiscoveries()}
+     */
+    public void markChunkDiscovered(int chunkX, int chunkZ) {
+        if (discoveredChunks.add(chunkX, chunkZ)) {
+            queueDiscovery(chunkX, chunkZ);
         }
     }
 
-    public void resetDiscoveredChunks() {
-        if (!discoveredChunks.isEmpty()) {
-            JourneyFactions.debugLog("Resetting discovered chunk cache ({} chunks)", discoveredChunks.size());
-            discoveredChunks.clear();
+    /**
+     * Restore a tile of discovered chunks read back from disk. Chunks that were not yet known
+     * reach the listeners like any other discovery; the tile is not marked for saving.
+     */
+    public void mergeDiscoveredTile(long tileKey, long[] words) {
+        discoveredChunks.orTile(tileKey, words, false, this::queueDiscovery);
+    }
+
+    /**
+     * Mark a whole tile of chunks discovered at once, e.g. ones JourneyMap has already mapped.
+     * Unlike {@link #mergeDiscoveredTile} the tile is saved with the player's own discoveries.
+     */
+    public void importDiscoveredTile(long tileKey, long[] words) {
+        discoveredChunks.orTile(tileKey, words, true, this::queueDiscovery);
+    }
+
+    /**
+     * Copy of one tile of the discovered bitmap, or null if nothing in it is discovered
+     */
+    public long[] copyDiscoveredTile(long tileKey) {
+        long[] tile = discoveredChunks.getTile(tileKey);
+        return tile != null ? tile.clone() : null;
+    }
+
+    /**
+     * Record discovered-chunk tiles that gain chunks for {@link #drainNewlyDiscoveredTiles}.
+     * Only an open discovery store drains them, so without one nothing is recorded.
+     */
+    public void setTrackNewDiscoveries(boolean track) {
+        trackNewDiscoveries = track;
+        discoveredChunks.setTrackDirtyTiles(track);
+    }
+
+    /**
+     * Hand every discovered-chunk tile that gained chunks since the last drain to the consumer
+     */
+    public void drainNewlyDiscoveredTiles(LongConsumer consumer) {
+        discoveredChunks.drainDirtyTiles(consumer);
+    }
+
+    private void queueDiscovery(int chunkX, int chunkZ) {
+        String factionId = getOwnerId(ChunkPos.toLong(chunkX, chunkZ));
+        if (factionId != null) {
+            pendingDiscoveries.computeIfAbsent(factionId, id -> new ArrayList<>()).add(new ChunkPos(chunkX, chunkZ));
         }
     }
 
-    public Set<ChunkPos> getDiscoveredClaims(Collection<ChunkPos> claimedChunks) {
-        if (claimedChunks == null || claimedChunks.isEmpty()) {
-            return Collections.emptySet();
+    /**
+     * Emit the chunks discovered since the last flush as one {@code onChunksDiscovered} per
+     * faction. Called at the end of every client tick, so walking into a large territory
+     * rebuilds it once rather than once per chunk.
+     */
+    public void flushDiscoveries() {
+        if (pendingDiscoveries.isEmpty()) {
+            return;
         }
 
-        Set<ChunkPos> visibleChunks = new HashSet<>();
-        for (ChunkPos chunk : claimedChunks) {
-            if (isChunkDiscovered(chunk)) {
-                visibleChunks.add(chunk);
+        Map<String, List<ChunkPos>> discoveries = new LinkedHashMap<>(pendingDiscoveries);
+        pendingDiscoveries.clear();
+        discoveries.forEach((factionId, chunks) -> {
+            ClientFaction owningFaction = factions.get(factionId);
+            if (owningFaction == null) {
+                return; // removed since the chunks were discovered
             }
+            JourneyFactions.debugLog("Discovered {} chunks of faction {}", chunks.size(), owningFaction.getName());
+            notifyChunksDiscovered(owningFaction, chunks);
+        });
+    }
+
+    public void resetDiscoveredChunks() {
+        ChunkBitmap previous = discoveredChunks;
+        if (!previous.isEmpty()) {
+            JourneyFactions.debugLog("Resetting discovered chunk cache ({} chunks)", previous.size());
+            discoveredChunks = new ChunkBitmap();
+            discoveredChunks.setTrackDirtyTiles(trackNewDiscoveries);
+            pendingDiscoveries.clear();
+            notifyDiscoveriesReset();
+        }
+    }
+
+    /**
+     * Claimed chunks the player has discovered: a word-wise AND of the two bitmaps, so the cost
+     * is per shared 32x32 tile rather than per chunk. The result is a frozen snapshot.
+     */
+    public ChunkBitmap getDiscoveredClaims(ChunkBitmap claimedChunks) {
+        if (claimedChunks.isEmpty()) {
+            return ChunkBitmap.EMPTY;
         }
-        return visibleChunks;
+        return claimedChunks.and(discoveredChunks);
     }
 
-    private void notifyFactionUpdated(ClientFaction faction) {
+    /**
+     * True if any discovered chunk of {@code claimedChunks} lies in the {@code 2^cellShift}-wide
+     * cell {@code (cellX, cellZ)}; reads a few rows of one tile from each bitmap
+     */
+    public boolean anyDiscoveredInCell(ChunkBitmap claimedChunks, int cellX, int cellZ, int cellShift) {
+        return claimedChunks.anyInCell(cellX, cellZ, cellShift, discoveredChunks);
+    }
+
+    private void notifyFactionUpdated(ClientFaction faction, ClaimDiff diff) {
+        if (batchDepth > 0) {
+            pendingUpdates.computeIfAbsent(faction.getId(), id -> new PendingUpdate(faction)).merge(faction, diff);
+            return;
+        }
+
         listeners.forEach(listener -> {
             try {
-                listener.onFactionUpdated(faction);
+                listener.onFactionUpdated(faction, diff);
             } catch (Exception e) {
                 JourneyFactions.LOGGER.error("Error notifying faction update listener", e);
             }
@@ -249,6 +764,7 @@ public class ClientFactionManager {
     }
 
     private void notifyFactionRemoved(ClientFaction faction) {
+        pendingUpdates.remove(faction.getId());
         listeners.forEach(listener -> {
             try {
                 listener.onFactionRemoved(faction);
@@ -269,6 +785,7 @@ public class ClientFactionManager {
     }
 
     private void notifyDataCleared() {
+        pendingUpdates.clear();
         listeners.forEach(listener -> {
             try {
                 listener.onDataCleared();
@@ -278,13 +795,20 @@ public class ClientFactionManager {
         });
     }
 
-    private void notifyChunkDiscovered(ChunkPos chunk) {
-        String factionId = chunkToFaction.get(chunk);
-        ClientFaction owningFaction = factionId != null ? factions.get(factionId) : null;
+    private void notifyDiscoveriesReset() {
+        discoveryListeners.forEach(listener -> {
+            try {
+                listener.onDiscoveriesReset();
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Error notifying chunk discovery listener", e);
+            }
+        });
+    }
 
+    private void notifyChunksDiscovered(ClientFaction owningFaction, Collection<ChunkPos> chunks) {
         discoveryListeners.forEach(listener -> {
             try {
-                listener.onChunkDiscovered(chunk, owningFaction);
+                listener.onChunksDiscovered(owningFaction, chunks);
             } catch (Exception e) {
                 JourneyFactions.LOGGER.error("Error notifying chunk discovery listener", e);
             }
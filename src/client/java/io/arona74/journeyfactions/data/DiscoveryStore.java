@@ -0,0 +1,336 @@
+package io.arona74.journeyfactions.data;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Discovered chunks of one server and dimension on disk, so territories show up again right
+ * after reconnecting. Files are laid out like Anvil region files: one per 32x32 tiles
+ * (1024x1024 chunks), holding only the tiles with anything discovered, 16 longs each.
+ *
+ * A region is read the first time the player or the map view comes near it and merged into the
+ * faction manager's discovered set. Newly discovered tiles are written back every 30 seconds
+ * and when the session ends. A write merges with what is already on disk, so it never waits for
+ * the region to be read first. All file access runs on one background thread.
+ *
+ * Every file carries a CRC32 of its payload; a file that fails the check is renamed to
+ * {@code .corrupt} and treated as empty.
+ *
+ * Next to the regions sits a record of the JourneyMap images already imported into them (see
+ * JourneyMapDiscoveryImporter), so a later import only reads images that changed.
+ */
+public class DiscoveryStore {
+
+    private static final int REGION_SHIFT = 5; // log2 of the region width in tiles
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+    private static final int REGION_CHUNK_SHIFT = REGION_SHIFT + ChunkBitmap.TILE_SHIFT;
+
+    // Header: magic, format version, payload length, CRC32 of the payload
+    private static final int MAGIC = 0x4A464443; // "JFDC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    // Payload: tile count, then per tile its index in the region and its words
+    private static final int TILE_BYTES = Short.BYTES + ChunkBitmap.WORDS_PER_TILE * Long.BYTES;
+
+    private static final int SAVE_INTERVAL_TICKS = 30 * 20;
+    private static final String IMPORT_RECORD_FILE = "journeymap-import.properties";
+
+    // One thread for every store, so the final write of a session lands before the next
+    // session reads the same file
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JourneyFactions-Discovery-IO");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final Path directory;
+    private final ClientFactionManager manager;
+    private final LongOpenHashSet requestedRegions = new LongOpenHashSet();
+    private int ticksSinceSave;
+    private volatile boolean closed;
+
+    public DiscoveryStore(Path directory, ClientFactionManager manager) {
+        this.directory = directory;
+        this.manager = manager;
+        manager.setTrackNewDiscoveries(true);
+        JourneyFactions.debugLog("Opened discovery store at {}", directory);
+    }
+
+    /**
+     * Make sure every region overlapping the inclusive chunk rectangle has been read, or is
+     * being read. Cheap for regions already requested.
+     */
+    public void request(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        if (closed) {
+            return;
+        }
+        for (int regionX = minChunkX >> REGION_CHUNK_SHIFT; regionX <= maxChunkX >> REGION_CHUNK_SHIFT; regionX++) {
+            for (int regionZ = minChunkZ >> REGION_CHUNK_SHIFT; regionZ <= maxChunkZ >> REGION_CHUNK_SHIFT; regionZ++) {
+                if (requestedRegions.add(ChunkPos.toLong(regionX, regionZ))) {
+                    load(regionX, regionZ);
+                }
+            }
+        }
+    }
+
+    public void tick() {
+        if (++ticksSinceSave >= SAVE_INTERVAL_TICKS) {
+            save();
+        }
+    }
+
+    /**
+     * Write every tile that gained chunks since the last save, one background write per region
+     */
+    public void save() {
+        ticksSinceSave = 0;
+        Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<long[]>> regions = new Long2ObjectOpenHashMap<>();
+        manager.drainNewlyDiscoveredTiles(tileKey -> {
+            long[] words = manager.copyDiscoveredTile(tileKey);
+            if (words == null) {
+                return;
+            }
+            long regionKey = ChunkPos.toLong(ChunkBitmap.tileX(tileKey) >> REGION_SHIFT, ChunkBitmap.tileZ(tileKey) >> REGION_SHIFT);
+            regions.computeIfAbsent(regionKey, key -> new Long2ObjectOpenHashMap<>()).put(tileKey, words);
+        });
+        if (regions.isEmpty()) {
+            return;
+        }
+
+        JourneyFactions.debugLog("Saving discovered chunks: {} regions changed", regions.size());
+        for (Long2ObjectMap.Entry<Long2ObjectOpenHashMap<long[]>> entry : regions.long2ObjectEntrySet()) {
+            int regionX = ChunkPos.getPackedX(entry.getLongKey());
+            int regionZ = ChunkPos.getPackedZ(entry.getLongKey());
+            Long2ObjectOpenHashMap<long[]> tiles = entry.getValue();
+            IO.execute(() -> write(regionX, regionZ, tiles));
+        }
+    }
+
+    /**
+     * Save what is left and stop merging reads that are still in flight
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        save();
+        closed = true;
+        manager.setTrackNewDiscoveries(false);
+        JourneyFactions.debugLog("Closed discovery store at {}", directory);
+    }
+
+    /**
+     * JourneyMap images imported into this store: path under the dimension's map folder mapped
+     * to the modification time the image had when it was read. Empty if none are recorded.
+     * Safe to call from any thread.
+     */
+    public Properties readImportRecord() {
+        Properties record = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(IMPORT_RECORD_FILE))) {
+            record.load(in);
+        } catch (NoSuchFileException e) {
+            // nothing imported yet
+        } catch (IOException | IllegalArgumentException e) {
+            JourneyFactions.LOGGER.warn("Ignoring unreadable JourneyMap import record in {}: {}", directory, e.getMessage());
+            record.clear();
+        }
+        return record;
+    }
+
+    /**
+     * Replace the import record. Every tile discovered so far is saved first and the record is
+     * written after those writes on the same thread, so a recorded image never outlives the
+     * chunks it contributed.
+     */
+    public void saveImportRecord(Properties record) {
+        if (closed) {
+            return;
+        }
+        save();
+        Properties copy = (Properties) record.clone();
+        IO.execute(() -> {
+            Path file = directory.resolve(IMPORT_RECORD_FILE);
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                copy.store(out, "JourneyMap images imported as discovered chunks");
+                Files.createDirectories(directory);
+                writeAtomically(file, out.toByteArray());
+            } catch (IOException e) {
+                JourneyFactions.LOGGER.error("Failed to save JourneyMap import record to {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Let queued writes finish before the game exits
+     */
+    public static void shutdown() {
+        IO.shutdown();
+        try {
+            if (!IO.awaitTermination(5, TimeUnit.SECONDS)) {
+                JourneyFactions.LOGGER.warn("Timed out saving discovered chunks");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load(int regionX, int regionZ) {
+        IO.execute(() -> {
+            Long2ObjectOpenHashMap<long[]> tiles;
+            try {
+                tiles = read(regionX, regionZ);
+            } catch (IOException e) {
+                JourneyFactions.LOGGER.error("Failed to read discovered chunks for region {},{}: {}", regionX, regionZ, e.getMessage());
+                return;
+            }
+            if (tiles.isEmpty()) {
+                return;
+            }
+            MinecraftClient.getInstance().execute(() -> {
+                if (closed) {
+                    return; // session ended while reading
+                }
+                for (Long2ObjectMap.Entry<long[]> tile : tiles.long2ObjectEntrySet()) {
+                    manager.mergeDiscoveredTile(tile.getLongKey(), tile.getValue());
+                }
+                JourneyFactions.debugLog("Restored {} discovered tiles of region {},{}", tiles.size(), regionX, regionZ);
+            });
+        });
+    }
+
+    // Background thread only
+
+    private void write(int regionX, int regionZ, Long2ObjectOpenHashMap<long[]> changedTiles) {
+        Path file = regionFile(regionX, regionZ);
+        try {
+            // Discoveries only ever add chunks, so merging with the file can't lose anything
+            Long2ObjectOpenHashMap<long[]> tiles = read(regionX, regionZ);
+            for (Long2ObjectMap.Entry<long[]> entry : changedTiles.long2ObjectEntrySet()) {
+                long[] existing = tiles.get(entry.getLongKey());
+                long[] words = entry.getValue();
+                if (existing != null) {
+                    for (int w = 0; w < ChunkBitmap.WORDS_PER_TILE; w++) {
+                        words[w] |= existing[w];
+                    }
+                }
+                tiles.put(entry.getLongKey(), words);
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(Integer.BYTES + tiles.size() * TILE_BYTES);
+            payload.putInt(tiles.size());
+            for (Long2ObjectMap.Entry<long[]> entry : tiles.long2ObjectEntrySet()) {
+                int localX = ChunkBitmap.tileX(entry.getLongKey()) & REGION_MASK;
+                int localZ = ChunkBitmap.tileZ(entry.getLongKey()) & REGION_MASK;
+                payload.putShort((short) ((localZ << REGION_SHIFT) | localX));
+                for (long word : entry.getValue()) {
+                    payload.putLong(word);
+                }
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + payload.capacity());
+            data.putInt(MAGIC).putInt(VERSION).putInt(payload.capacity()).putInt((int) crc.getValue());
+            data.put(payload.array());
+
+            Files.createDirectories(directory);
+            writeAtomically(file, data.array());
+        } catch (IOException e) {
+            JourneyFactions.LOGGER.error("Failed to save discovered chunks to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Write next to the file and move it over, so a crash never leaves half a file
+     */
+    private static void writeAtomically(Path file, byte[] data) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, data);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Tiles stored for a region; empty if there is no file or it was corrupt
+     */
+    private Long2ObjectOpenHashMap<long[]> read(int regionX, int regionZ) throws IOException {
+        Path file = regionFile(regionX, regionZ);
+        Long2ObjectOpenHashMap<long[]> tiles = new Long2ObjectOpenHashMap<>();
+
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return tiles;
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            return quarantine(file, "unknown format");
+        }
+        int length = data.getInt();
+        int checksum = data.getInt();
+        if (length != bytes.length - HEADER_BYTES) {
+            return quarantine(file, "truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER_BYTES, length);
+        if ((int) crc.getValue() != checksum) {
+            return quarantine(file, "checksum mismatch");
+        }
+
+        int count = length >= Integer.BYTES ? data.getInt() : -1;
+        if (count < 0 || count > (1 << (2 * REGION_SHIFT)) || length != Integer.BYTES + count * TILE_BYTES) {
+            return quarantine(file, "bad tile count");
+        }
+        for (int i = 0; i < count; i++) {
+            int local = data.getShort() & 0xFFFF;
+            if (local >>> (2 * REGION_SHIFT) != 0) {
+                return quarantine(file, "bad tile index");
+            }
+            long[] words = new long[ChunkBitmap.WORDS_PER_TILE];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = data.getLong();
+            }
+            int tileX = (regionX << REGION_SHIFT) | (local & REGION_MASK);
+            int tileZ = (regionZ << REGION_SHIFT) | (local >>> REGION_SHIFT);
+            tiles.put(ChunkPos.toLong(tileX, tileZ), words);
+        }
+        return tiles;
+    }
+
+    private static Long2ObjectOpenHashMap<long[]> quarantine(Path file, String reason) throws IOException {
+        Path corrupt = file.resolveSibling(file.getFileName() + ".corrupt");
+        JourneyFactions.LOGGER.warn("Discarding discovered chunks in {} ({}), moved to {}", file, reason, corrupt.getFileName());
+        Files.move(file, corrupt, StandardCopyOption.REPLACE_EXISTING);
+        return new Long2ObjectOpenHashMap<>();
+    }
+
+    private Path regionFile(int regionX, int regionZ) {
+        return directory.resolve("r." + regionX + "." + regionZ + ".jfd");
+    }
+}
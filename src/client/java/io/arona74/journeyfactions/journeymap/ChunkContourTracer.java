@@ -0,0 +1,239 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import journeymap.client.api.model.MapPolygon;
+import journeymap.client.api.model.MapPolygonWithHoles;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Traces the outline of a chunk set along chunk borders, without going through JourneyMap's
+ * PolygonHelper.
+ *
+ * Boundary edges are collected a tile row (32 chunks) at a time and directed so the claimed chunk
+ * is always on the same side. Each edge is then walked exactly once, so the cost is
+ * O(area / 32 + perimeter). Where two claimed chunks only touch diagonally the walk keeps
+ * hugging the chunk it came from, so claims are 4-connected (diagonal neighbours get separate
+ * outer rings) and gaps are 8-connected (diagonal gaps form one hole that touches itself at the
+ * shared corner). Outer rings come out with positive area and holes with negative area
+ * (x east, z south); only corner vertices are kept and every ring is closed by repeating its
+ * first point.
+ */
+public final class ChunkContourTracer {
+
+    // Edge directions: east, south, west, north
+    private static final int EAST = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int NORTH = 3;
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DZ = {0, 1, 0, -1};
+
+    private static final Comparator<BlockPos> POINT_ORDER =
+        Comparator.comparingInt(BlockPos::getZ).thenComparingInt(BlockPos::getX);
+
+    // Per-vertex value: low nibble = outgoing edges, high nibble = edges not yet walked
+    private static final int UNVISITED_SHIFT = 4;
+
+    private ChunkContourTracer() {
+    }
+
+    /**
+     * Trace every ring of the bitmap. Intended for one 4-connected region, which yields exactly
+     * one outer ring; for disconnected input each hole goes to the smallest enclosing outer ring.
+     */
+    public static List<MapPolygonWithHoles> trace(ChunkBitmap chunks, int y) {
+        return trace(chunks, y, 4);
+    }
+
+    /**
+     * Same as {@link #trace(ChunkBitmap, int)} for a bitmap of coarser cells, each
+     * {@code 2^blockShift} blocks wide (4 for plain chunks)
+     */
+    public static List<MapPolygonWithHoles> trace(ChunkBitmap chunks, int y, int blockShift) {
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Long2IntOpenHashMap vertices = collectBoundaryEdges(chunks);
+
+        List<Ring> outers = new ArrayList<>();
+        List<Ring> holes = new ArrayList<>();
+        for (long start : vertices.keySet().toLongArray()) {
+            int unvisited;
+            while ((unvisited = vertices.get(start) >>> UNVISITED_SHIFT) != 0) {
+                Ring ring = walk(vertices, start, Integer.numberOfTrailingZeros(unvisited), y, blockShift);
+                (ring.area2 > 0 ? outers : holes).add(ring);
+            }
+        }
+
+        // Edge collection order follows hash iteration; sort so output is deterministic
+        outers.sort((a, b) -> POINT_ORDER.compare(a.points.get(0), b.points.get(0)));
+        holes.sort((a, b) -> POINT_ORDER.compare(a.points.get(0), b.points.get(0)));
+
+        List<List<MapPolygon>> holesByOuter = new ArrayList<>();
+        for (int i = 0; i < outers.size(); i++) {
+            holesByOuter.add(new ArrayList<>());
+        }
+        for (Ring hole : holes) {
+            int owner = outers.size() == 1 ? 0 : findEnclosingOuter(outers, hole);
+            if (owner >= 0) {
+                holesByOuter.get(owner).add(new MapPolygon(hole.points));
+            }
+        }
+
+        List<MapPolygonWithHoles> polygons = new ArrayList<>(outers.size());
+        for (int i = 0; i < outers.size(); i++) {
+            polygons.add(new MapPolygonWithHoles(new MapPolygon(outers.get(i).points), holesByOuter.get(i)));
+        }
+        return polygons;
+    }
+
+    /**
+     * Every claimed chunk contributes the sides that face an unclaimed chunk, walked clockwise
+     * on screen: top eastward, right southward, bottom westward, left northward.
+     */
+    private static Long2IntOpenHashMap collectBoundaryEdges(ChunkBitmap chunks) {
+        Long2IntOpenHashMap vertices = new Long2IntOpenHashMap();
+        int tileMask = ChunkBitmap.TILE_SIZE - 1;
+
+        chunks.forEachTile(key -> {
+            long[] tile = chunks.getTile(key);
+            int tx = ChunkBitmap.tileX(key);
+            int tz = ChunkBitmap.tileZ(key);
+            long[] west = chunks.getTile(ChunkPos.toLong(tx - 1, tz));
+            long[] east = chunks.getTile(ChunkPos.toLong(tx + 1, tz));
+            long[] north = chunks.getTile(ChunkPos.toLong(tx, tz - 1));
+            long[] south = chunks.getTile(ChunkPos.toLong(tx, tz + 1));
+            int baseX = tx << ChunkBitmap.TILE_SHIFT;
+            int baseZ = tz << ChunkBitmap.TILE_SHIFT;
+
+            for (int z = 0; z < ChunkBitmap.TILE_SIZE; z++) {
+                int bits = ChunkBitmap.row(tile, z);
+                if (bits == 0) {
+                    continue;
+                }
+                int westBits = (bits << 1) | (ChunkBitmap.row(west, z) >>> 31);
+                int eastBits = (bits >>> 1) | (ChunkBitmap.row(east, z) << 31);
+                int northBits = z > 0 ? ChunkBitmap.row(tile, z - 1) : ChunkBitmap.row(north, tileMask);
+                int southBits = z < tileMask ? ChunkBitmap.row(tile, z + 1) : ChunkBitmap.row(south, 0);
+
+                int cz = baseZ + z;
+                addEdges(vertices, bits & ~northBits, baseX, cz, 0, 0, EAST);
+                addEdges(vertices, bits & ~eastBits, baseX, cz, 1, 0, SOUTH);
+                addEdges(vertices, bits & ~southBits, baseX, cz, 1, 1, WEST);
+                addEdges(vertices, bits & ~westBits, baseX, cz, 0, 1, NORTH);
+            }
+        });
+        return vertices;
+    }
+
+    private static void addEdges(Long2IntOpenHashMap vertices, int mask, int baseX, int cz, int offX, int offZ, int dir) {
+        int flags = (1 << dir) | (1 << (dir + UNVISITED_SHIFT));
+        while (mask != 0) {
+            int x = baseX + Integer.numberOfTrailingZeros(mask);
+            long vertex = ChunkPos.toLong(x + offX, cz + offZ);
+            vertices.put(vertex, vertices.get(vertex) | flags);
+            mask &= mask - 1;
+        }
+    }
+
+    private static Ring walk(Long2IntOpenHashMap vertices, long start, int startDir, int y, int blockShift) {
+        List<BlockPos> points = new ArrayList<>();
+        long area2 = 0;
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+        long vertex = start;
+        int dir = startDir;
+        int prevDir = -1;
+        do {
+            int flags = vertices.get(vertex);
+            vertices.put(vertex, flags & ~(1 << (dir + UNVISITED_SHIFT)));
+
+            int x = ChunkPos.getPackedX(vertex);
+            int z = ChunkPos.getPackedZ(vertex);
+            if (dir != prevDir) {
+                points.add(new BlockPos(x << blockShift, y, z << blockShift));
+                minX = Math.min(minX, x);
+                minZ = Math.min(minZ, z);
+                maxX = Math.max(maxX, x);
+                maxZ = Math.max(maxZ, z);
+            }
+
+            int nx = x + DX[dir];
+            int nz = z + DZ[dir];
+            area2 += (long) x * nz - (long) nx * z;
+
+            vertex = ChunkPos.toLong(nx, nz);
+            prevDir = dir;
+            dir = nextDirection(prevDir, vertices.get(vertex));
+        } while (vertex != start || dir != startDir);
+
+        // Started mid-side: the first point is not a corner
+        if (prevDir == startDir) {
+            points.remove(0);
+        }
+        // Canonical start (lowest z, then x) so the same outline always yields the same point list
+        int first = 0;
+        for (int i = 1; i < points.size(); i++) {
+            if (POINT_ORDER.compare(points.get(i), points.get(first)) < 0) {
+                first = i;
+            }
+        }
+        Collections.rotate(points, -first);
+        points.add(points.get(0));
+        return new Ring(points, area2, minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Prefer turning toward the chunk just followed, then straight, then away from it. At a
+     * diagonal pinch this keeps each ring around its own chunks.
+     */
+    private static int nextDirection(int incoming, int outgoing) {
+        int toward = (incoming + 1) & 3;
+        if ((outgoing & (1 << toward)) != 0) {
+            return toward;
+        }
+        if ((outgoing & (1 << incoming)) != 0) {
+            return incoming;
+        }
+        return (incoming + 3) & 3;
+    }
+
+    private static int findEnclosingOuter(List<Ring> outers, Ring hole) {
+        int best = -1;
+        for (int i = 0; i < outers.size(); i++) {
+            Ring outer = outers.get(i);
+            if (outer.encloses(hole) && (best < 0 || outer.area2 < outers.get(best).area2)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static final class Ring {
+        final List<BlockPos> points;
+        final long area2;
+        final int minX, minZ, maxX, maxZ;
+
+        Ring(List<BlockPos> points, long area2, int minX, int minZ, int maxX, int maxZ) {
+            this.points = points;
+            this.area2 = area2;
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+        }
+
+        boolean encloses(Ring other) {
+            return other.minX >= minX && other.maxX <= maxX && other.minZ >= minZ && other.maxZ <= maxZ;
+        }
+    }
+}
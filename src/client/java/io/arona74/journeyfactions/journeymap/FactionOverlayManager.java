@@ -2,6 +2,10 @@ package io.arona74.journeyfactions.journeymap;
 
 import io.arona74.journeyfactions.JourneyFactions;
 import io.arona74.journeyfactions.config.JourneyFactionsConfig;
+import io.arona74.journeyfactions.data.ChunkArea;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import io.arona74.journeyfactions.data.ClaimDiff;
+import io.arona74.journeyfactions.data.ClientDiscoveryTracker;
 import io.arona74.journeyfactions.data.ClientFaction;
 import io.arona74.journeyfactions.data.ClientFactionManager;
 import journeymap.client.api.IClientAPI;
@@ -11,7 +15,8 @@ import journeymap.client.api.model.MapPolygon;
 import journeymap.client.api.model.MapPolygonWithHoles;
 import journeymap.client.api.model.ShapeProperties;
 import journeymap.client.api.model.TextProperties;
-import journeymap.client.api.util.PolygonHelper;
+import journeymap.client.api.util.UIState;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.registry.RegistryKey;
@@ -23,8 +28,178 @@ import java.util.*;
 public class FactionOverlayManager implements ClientFactionManager.FactionUpdateListener, ClientFactionManager.ChunkDiscoveryListener {
     
     private final IClientAPI jmAPI;
-    private final Map<String, PolygonOverlay> factionOverlays;
-    private static final int LABEL_Y = 70;
+    private final OverlayApplyQueue applyQueue;
+    private final OverlayReconciler reconciler;
+    private final OverlayRefreshScheduler refreshScheduler;
+    private final TerritoryGeometryPipeline geometryPipeline;
+    private final RasterTerritoryRenderer rasterRenderer;
+    // Per-faction index of applied regions and the region/label overlay IDs each one owns
+    private final Map<String, FactionTerritory> territories = new HashMap<>();
+    private static final int LABEL_Y = TerritoryGeometry.LABEL_Y;
+
+    // Viewport culling: region bounding boxes, and the regions currently let into JourneyMap
+    private final MapViewport viewport;
+    private final RegionSpatialIndex<RegionOverlays> regionIndex = new RegionSpatialIndex<>();
+    private final Set<RegionOverlays> unculledRegions = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean cullingActive;
+
+    // Detail tier picked from the map zoom; factions switch over as their rebuilds land
+    private TerritoryLod currentLod = TerritoryLod.FULL;
+
+    // Set when every overlay must be rebuilt on the next display update
+    private boolean displayDirty = true;
+    private TerritoryGeometry.Settings appliedSettings;
+    private JourneyFactionsConfig.RenderMode appliedRenderMode;
+
+    /**
+     * Overlays created for one region, plus its number in the built-in label ("Name #2")
+     */
+    private static final class RegionOverlays {
+        final int number;
+        final ChunkArea bounds;
+        final List<String> overlayIds = new ArrayList<>(2);
+        boolean culled;
+
+        RegionOverlays(int number, ChunkArea bounds) {
+            this.number = number;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * What is currently drawn for a faction, plus the last geometry of every detail tier so a
+     * zoom change only patches the tier it switches to. The coarse tiers' cell bitmaps are kept
+     * current with every claim and discovery change whether or not the tier is on screen, so
+     * zooming out never downsamples the whole territory.
+     */
+    private static final class FactionTerritory {
+        final Map<TerritoryRegion, RegionOverlays> overlays = new IdentityHashMap<>();
+        final TierState[] tiers = new TierState[TerritoryLod.values().length];
+
+        FactionTerritory() {
+            for (TerritoryLod lod : TerritoryLod.values()) {
+                tiers[lod.ordinal()] = new TierState(lod);
+            }
+        }
+
+        TierState tier(TerritoryLod lod) {
+            return tiers[lod.ordinal()];
+        }
+
+        void touch(int chunkX, int chunkZ) {
+            for (TierState tier : tiers) {
+                int cellShift = tier.lod.getCellShift();
+                tier.touch(chunkX >> cellShift, chunkZ >> cellShift);
+            }
+        }
+
+        void markFullRebuild() {
+            for (TierState tier : tiers) {
+                tier.pendingFullRebuild = true;
+                tier.pendingTouched = new ChunkBitmap();
+            }
+        }
+
+        /**
+         * Downsample the visible chunks into every coarse tier that has no cells yet
+         */
+        void seedCells(ChunkBitmap visibleChunks) {
+            for (TierState tier : tiers) {
+                if (tier.lod != TerritoryLod.FULL && tier.cells == null) {
+                    tier.cells = visibleChunks.coarsen(tier.lod.getCellShift());
+                }
+            }
+        }
+
+        void dropCells() {
+            for (TierState tier : tiers) {
+                tier.cells = null;
+            }
+        }
+
+        /**
+         * Bring the coarse cells up to date with one chunk whose claim or discovery changed: a
+         * visible chunk sets its cell outright, otherwise the cell is re-tested against the
+         * faction's other visible chunks in it
+         */
+        void updateCells(ClientFactionManager manager, ChunkBitmap claims, int chunkX, int chunkZ) {
+            boolean visible = claims.contains(chunkX, chunkZ) && manager.isChunkDiscovered(chunkX, chunkZ);
+            for (TierState tier : tiers) {
+                if (tier.cells == null) {
+                    continue;
+                }
+                int cellShift = tier.lod.getCellShift();
+                int cellX = chunkX >> cellShift;
+                int cellZ = chunkZ >> cellShift;
+                if (visible) {
+                    tier.cells.add(cellX, cellZ);
+                } else if (tier.cells.contains(cellX, cellZ) && !manager.anyDiscoveredInCell(claims, cellX, cellZ, cellShift)) {
+                    tier.cells.remove(cellX, cellZ);
+                }
+            }
+        }
+    }
+
+    /**
+     * One tier's last applied geometry and which of its cells changed since. Changes are split
+     * between those already handed to the in-flight build and those that arrived after it, so
+     * applying that build never forgets a change it did not see.
+     */
+    private static final class TierState {
+        final TerritoryLod lod;
+        TerritoryGeometry.Result applied;
+        // Coarse tiers only: the faction's visible cells, null until seeded
+        ChunkBitmap cells;
+
+        ChunkBitmap pendingTouched = new ChunkBitmap();
+        boolean pendingFullRebuild = true;
+        ChunkBitmap submittedTouched = new ChunkBitmap();
+        boolean submittedFullRebuild;
+
+        TierState(TerritoryLod lod) {
+            this.lod = lod;
+        }
+
+        void touch(int cellX, int cellZ) {
+            // Tiers nobody looks at keep collecting changes; cap them at a full rebuild
+            if (pendingFullRebuild) {
+                return;
+            }
+            pendingTouched.add(cellX, cellZ);
+            if (pendingTouched.size() > INCREMENTAL_TOUCH_LIMIT) {
+                pendingFullRebuild = true;
+                pendingTouched = new ChunkBitmap();
+            }
+        }
+
+        boolean hasPendingChanges() {
+            return pendingFullRebuild || !pendingTouched.isEmpty();
+        }
+
+        /**
+         * Fold pending changes into the next submission; null means rebuild everything
+         */
+        ChunkBitmap takeTouchedForSubmit() {
+            submittedFullRebuild |= pendingFullRebuild;
+            pendingFullRebuild = false;
+            pendingTouched.forEach(submittedTouched::add);
+            pendingTouched = new ChunkBitmap();
+            if (submittedFullRebuild || applied == null || submittedTouched.size() > INCREMENTAL_TOUCH_LIMIT) {
+                submittedFullRebuild = true;
+                return null;
+            }
+            return submittedTouched.mutableCopy().freeze();
+        }
+
+        void onGeometryApplied(TerritoryGeometry.Result result) {
+            applied = result;
+            submittedTouched = new ChunkBitmap();
+            submittedFullRebuild = false;
+        }
+    }
+
+    // Past this many changed cells a from-scratch build is cheaper than patching
+    private static final int INCREMENTAL_TOUCH_LIMIT = 4096;
 
     private PolygonOverlay createLabelOnlyOverlay(
             String overlayId,
@@ -69,66 +244,17 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
         return labelOverlay;
     }
 
-    private BlockPos computeInteriorLabelAnchor(Set<ChunkPos> region) {
-        if (region.isEmpty()) return null;
-
-        // Edge detection: any missing 4-neighbor => edge
-        Deque<ChunkPos> q = new ArrayDeque<>();
-        Map<ChunkPos, Integer> dist = new HashMap<>(region.size() * 2);
-        for (ChunkPos c : region) {
-            if (isEdgeChunk(c, region)) {
-                dist.put(c, 0);
-                q.add(c);
-            }
-        }
-        // Single chunk or fully solid region with no detected edge: just use it
-        if (dist.isEmpty()) {
-            ChunkPos any = region.iterator().next();
-            return new BlockPos(any.x * 16 + 8, LABEL_Y, any.z * 16 + 8);
-        }
-
-        // BFS into the interior
-        while (!q.isEmpty()) {
-            ChunkPos cur = q.removeFirst();
-            int d = dist.get(cur);
-            for (ChunkPos n : neighbors(cur)) {
-                if (region.contains(n) && !dist.containsKey(n)) {
-                    dist.put(n, d + 1);
-                    q.addLast(n);
-                }
-            }
-        }
-
-        // Choose the chunk with max distance from the perimeter (keeps out of holes)
-        ChunkPos best = null;
-        int bestD = -1;
-        for (Map.Entry<ChunkPos, Integer> e : dist.entrySet()) {
-            if (e.getValue() > bestD) { bestD = e.getValue(); best = e.getKey(); }
-        }
-        if (best == null) best = region.iterator().next();
-
-        return new BlockPos(best.x * 16 + 8, LABEL_Y, best.z * 16 + 8);
-    }
-
-    private boolean isEdgeChunk(ChunkPos c, Set<ChunkPos> set) {
-        return !(set.contains(new ChunkPos(c.x + 1, c.z)) &&
-                set.contains(new ChunkPos(c.x - 1, c.z)) &&
-                set.contains(new ChunkPos(c.x, c.z + 1)) &&
-                set.contains(new ChunkPos(c.x, c.z - 1)));
-    }
-
-    private ChunkPos[] neighbors(ChunkPos c) {
-        return new ChunkPos[] {
-            new ChunkPos(c.x + 1, c.z),
-            new ChunkPos(c.x - 1, c.z),
-            new ChunkPos(c.x, c.z + 1),
-            new ChunkPos(c.x, c.z - 1)
-        };
-    }
-    
     public FactionOverlayManager(IClientAPI jmAPI) {
         this.jmAPI = jmAPI;
-        this.factionOverlays = new HashMap<>();
+        this.viewport = new MapViewport(this::onViewportChanged);
+        this.applyQueue = new OverlayApplyQueue(jmAPI, viewport);
+        this.reconciler = new OverlayReconciler(applyQueue);
+        this.reconciler.setVisible(FactionDisplayManager.isFactionDisplayEnabled());
+        this.refreshScheduler = new OverlayRefreshScheduler(this::refreshFaction);
+        this.geometryPipeline = new TerritoryGeometryPipeline(this::applyFactionGeometry);
+        this.rasterRenderer = new RasterTerritoryRenderer(reconciler);
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> onSessionChanged());
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> onSessionChanged());
         
         // Initialize the display manager
         FactionDisplayManager.initialize(this);
@@ -136,37 +262,175 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
     
     public void onMappingStarted() {
         JourneyFactions.debugLog("JourneyMap mapping started - loading faction overlays");
-        loadAllFactionOverlays();
+        displayDirty = true;
+        updateDisplay();
     }
     
     public void onMappingStopped() {
         JourneyFactions.debugLog("JourneyMap mapping stopped - clearing overlays");
+        refreshScheduler.clear();
+        geometryPipeline.cancelAll();
         clearAllOverlays();
+        viewport.clear();
+        displayDirty = true;
     }
     
+    /**
+     * DISPLAY_UPDATE handler. Claim and discovery changes already queue their own faction
+     * refreshes, so this only rebuilds everything when the overlays as a whole are stale
+     * (mapping restarted, geometry settings changed) and otherwise does no geometry work.
+     */
     public void updateDisplay() {
-        // Refresh overlays periodically
-        loadAllFactionOverlays();
+        TerritoryGeometry.Settings settings = TerritoryGeometry.Settings.fromConfig();
+        if (!settings.equals(appliedSettings)) {
+            JourneyFactions.debugLog("Geometry settings changed - rebuilding all faction overlays");
+            displayDirty = true;
+        }
+        JourneyFactionsConfig.RenderMode renderMode = JourneyFactions.CONFIG.renderMode;
+        if (renderMode != appliedRenderMode) {
+            JourneyFactions.debugLog("Render mode changed to {} - replacing all faction overlays", renderMode);
+            switchRenderMode(renderMode);
+        }
+
+        // Culling or LOD switched on or off in the config since the last view change
+        if ((JourneyFactions.CONFIG.viewportCulling && viewport.hasView()) != cullingActive) {
+            updateCulling();
+        }
+        updateLod();
+
+        if (displayDirty) {
+            displayDirty = false;
+            appliedSettings = settings;
+            loadAllFactionOverlays();
+            return;
+        }
+
+        // Safety net: re-queue factions with changes that have not been submitted yet
+        for (Map.Entry<String, FactionTerritory> entry : territories.entrySet()) {
+            if (entry.getValue().tier(currentLod).hasPendingChanges()) {
+                refreshScheduler.markDirty(entry.getKey());
+            }
+        }
     }
     
+    /**
+     * Drop every overlay drawn the old way; the caller's full reload draws them the new way
+     */
+    private void switchRenderMode(JourneyFactionsConfig.RenderMode renderMode) {
+        refreshScheduler.clear();
+        geometryPipeline.cancelAll();
+        clearAllOverlays();
+        rasterRenderer.setEnabled(renderMode == JourneyFactionsConfig.RenderMode.RASTER_TILES);
+        appliedRenderMode = renderMode;
+        displayDirty = true;
+    }
+
+    /**
+     * Track the map view carried by a DISPLAY_UPDATE event
+     */
+    public void updateViewport(UIState state) {
+        viewport.update(state);
+        updateLod();
+    }
+
+    /**
+     * Pick the detail tier for the current zoom. On a change every faction is re-queued; each
+     * one patches its cached geometry for the new tier instead of rebuilding from scratch.
+     */
+    private void updateLod() {
+        TerritoryLod lod = JourneyFactions.CONFIG.zoomLevelOfDetail
+            ? TerritoryLod.forBlockSize(viewport.getBlockSize(), JourneyFactions.CONFIG.lodMinCellPixels)
+            : TerritoryLod.FULL;
+        if (lod == currentLod) {
+            return;
+        }
+        JourneyFactions.debugLog("Map zoom changed territory detail from {} to {}", currentLod, lod);
+        currentLod = lod;
+        for (String factionId : territories.keySet()) {
+            refreshScheduler.markDirty(factionId);
+        }
+    }
+
+    private void onViewportChanged() {
+        // Start reading saved discoveries for whatever the map may show next
+        for (ChunkArea view : viewport.getViews()) {
+            ClientDiscoveryTracker.requestArea(view.expand(JourneyFactions.CONFIG.cullingMarginChunks));
+        }
+        updateCulling();
+    }
+
+    /**
+     * Let in regions within the margin of any view and evict those that scrolled more than
+     * twice the margin away (the gap avoids churn when panning back and forth). Both steps
+     * only touch regions near a view or currently shown, never the whole world.
+     */
+    private void updateCulling() {
+        if (!JourneyFactions.CONFIG.viewportCulling || !viewport.hasView()) {
+            if (cullingActive) {
+                cullingActive = false;
+                for (FactionTerritory territory : territories.values()) {
+                    for (RegionOverlays region : territory.overlays.values()) {
+                        setRegionCulled(region, false);
+                    }
+                }
+            }
+            return;
+        }
+
+        cullingActive = true;
+        int margin = JourneyFactions.CONFIG.cullingMarginChunks;
+        for (ChunkArea view : viewport.getViews()) {
+            regionIndex.query(view.expand(margin), region -> setRegionCulled(region, false));
+        }
+        for (RegionOverlays region : new ArrayList<>(unculledRegions)) {
+            if (!viewport.isNear(region.bounds, margin * 2)) {
+                setRegionCulled(region, true);
+            }
+        }
+        JourneyFactions.debugLog("Viewport culling: {} of {} regions in view", unculledRegions.size(), regionIndex.size());
+    }
+
+    private boolean shouldCull(ChunkArea bounds) {
+        return JourneyFactions.CONFIG.viewportCulling && viewport.hasView()
+            && !viewport.isNear(bounds, JourneyFactions.CONFIG.cullingMarginChunks);
+    }
+
+    private void setRegionCulled(RegionOverlays region, boolean culled) {
+        if (region.culled == culled) {
+            return;
+        }
+        region.culled = culled;
+        for (String overlayId : region.overlayIds) {
+            reconciler.setCulled(overlayId, culled);
+        }
+        if (culled) {
+            unculledRegions.remove(region);
+        } else {
+            unculledRegions.add(region);
+        }
+    }
+
+    private void trackRegion(RegionOverlays region) {
+        regionIndex.insert(region, region.bounds);
+        if (!region.culled) {
+            unculledRegions.add(region);
+        }
+    }
+
+    private void untrackRegion(RegionOverlays region) {
+        regionIndex.remove(region, region.bounds);
+        unculledRegions.remove(region);
+        reconciler.removeAll(region.overlayIds);
+    }
+
     /**
      * Update visibility of all faction overlays
      */
     public void updateAllOverlayVisibility(boolean visible) {
         try {
-            if (visible) {
-                // Show all overlays by adding them to JourneyMap
-                for (PolygonOverlay overlay : factionOverlays.values()) {
-                    jmAPI.show(overlay);
-                }
-                JourneyFactions.debugLog("Showed {} faction overlays", factionOverlays.size());
-            } else {
-                // Hide all overlays by removing them from JourneyMap
-                for (PolygonOverlay overlay : factionOverlays.values()) {
-                    jmAPI.remove(overlay);
-                }
-                JourneyFactions.debugLog("Hid {} faction overlays", factionOverlays.size());
-            }
+            // Add all overlays to / remove them from JourneyMap, keeping them tracked either way
+            reconciler.setVisible(visible);
+            JourneyFactions.debugLog("{} {} faction overlays", visible ? "Showed" : "Hid", reconciler.size());
         } catch (Exception e) {
             // JourneyFactions.LOGGER.error("Error updating overlay visibility", e);
         }
@@ -176,9 +440,38 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
      * Get the current number of active overlays
      */
     public int getOverlayCount() {
-        return factionOverlays.size();
+        return reconciler.size();
+    }
+
+    /**
+     * Overlay submissions that reached JourneyMap / were skipped because nothing changed
+     */
+    public long getSubmittedOverlayCount() {
+        return reconciler.getSubmittedCount();
+    }
+
+    public long getSkippedOverlayCount() {
+        return reconciler.getSkippedCount();
+    }
+
+    /**
+     * Overlay shows/removes waiting for their turn to reach JourneyMap
+     */
+    public int getApplyQueueDepth() {
+        return applyQueue.getDepth();
+    }
+
+    /**
+     * Geometry cache statistics; the cache survives {@link #clearAllOverlays()} and full
+     * resyncs, but not joining or leaving a server
+     */
+    public TerritoryGeometryCache getGeometryCache() {
+        return geometryPipeline.getCache();
     }
     
+    /**
+     * Queue a full rebuild of every faction; the refresh scheduler spreads it over ticks
+     */
     private void loadAllFactionOverlays() {
         try {
             JourneyFactions.debugLog("Loading faction overlays...");
@@ -186,11 +479,17 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
             JourneyFactions.debugLog("Found {} factions to process", factions.size());
 
             for (ClientFaction faction : factions) {
-                JourneyFactions.debugLog("Processing faction: {} (type: {}, chunks: {})",faction.getName(), faction.getType(), faction.getClaimedChunks().size());
+                JourneyFactions.debugLog("Processing faction: {} (type: {}, chunks: {})",faction.getName(), faction.getType(), faction.getClaimedChunkCount());
 
                 // Only display factions that have claimed territory and that the player has discovered
-                if (!faction.getClaimedChunks().isEmpty()) {
-                    createOrUpdateFactionOverlay(faction, faction.getClaimedChunks());
+                if (!faction.isEmpty() && rasterRenderer.isEnabled()) {
+                    rasterRenderer.markFactionDirty(faction);
+                } else if (!faction.isEmpty()) {
+                    FactionTerritory territory = territories.get(faction.getId());
+                    if (territory != null) {
+                        territory.markFullRebuild();
+                    }
+                    refreshScheduler.markDirty(faction.getId());
                 } else {
                     JourneyFactions.debugLog("Skipping faction {} - no claimed chunks", faction.getName());
                 }
@@ -201,313 +500,171 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
         }
     }
     
-    private BlockPos computeHullCentroid(Set<ChunkPos> region) {
-        if (region.isEmpty()) {
-            return new BlockPos(0, LABEL_Y, 0);
+    /**
+     * Client-thread half of a rebuild: swap overlays only for regions the geometry pass replaced.
+     * Regions handed back as the same instance keep their existing overlays untouched.
+     */
+    private void applyFactionGeometry(String factionId, TerritoryGeometry.Result geometry) {
+        ClientFaction faction = JourneyFactions.getFactionManager().getFaction(factionId);
+        if (faction == null) {
+            completelyRemoveFactionOverlays(factionId);
+            return;
         }
 
-        int minChunkX = Integer.MAX_VALUE;
-        int maxChunkX = Integer.MIN_VALUE;
-        int minChunkZ = Integer.MAX_VALUE;
-        int maxChunkZ = Integer.MIN_VALUE;
-
-        for (ChunkPos c : region) {
-            if (c.x < minChunkX) minChunkX = c.x;
-            if (c.x > maxChunkX) maxChunkX = c.x;
-            if (c.z < minChunkZ) minChunkZ = c.z;
-            if (c.z > maxChunkZ) maxChunkZ = c.z;
+        FactionTerritory territory = territories.computeIfAbsent(factionId, id -> new FactionTerritory());
+        territory.tier(geometry.getLod()).onGeometryApplied(geometry);
+        if (geometry.getLod() != currentLod) {
+            // Zoom moved on while this was building; the new tier's rebuild is already queued
+            JourneyFactions.debugLog("Cached {} geometry for faction {} without showing it", geometry.getLod(), faction.getDisplayName());
+            return;
         }
 
-        // Convert chunks to block coords for edges
-        int minBlockX = minChunkX * 16;
-        int maxBlockX = (maxChunkX * 16) + 15; // last block in chunk
-        int minBlockZ = minChunkZ * 16;
-        int maxBlockZ = (maxChunkZ * 16) + 15;
+        Set<TerritoryRegion> nextRegions = Collections.newSetFromMap(new IdentityHashMap<>());
+        nextRegions.addAll(geometry.getRegions());
 
-        // Perfect geometric center
-        int centerX = (minBlockX + maxBlockX) / 2;
-        int centerZ = (minBlockZ + maxBlockZ) / 2;
-
-        return new BlockPos(centerX, LABEL_Y, centerZ);
-    }
-
-
-
-    private void createOrUpdateFactionOverlay(ClientFaction faction, Set<ChunkPos> claimedChunks) {
-        if (faction == null || claimedChunks.isEmpty()) {
-            return;
+        // Detach regions that were replaced or vanished; their overlays go after the new ones are in
+        List<RegionOverlays> replaced = new ArrayList<>();
+        Map<String, Integer> numbersByKey = new HashMap<>();
+        Iterator<Map.Entry<TerritoryRegion, RegionOverlays>> iterator = territory.overlays.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TerritoryRegion, RegionOverlays> entry = iterator.next();
+            if (!nextRegions.contains(entry.getKey())) {
+                replaced.add(entry.getValue());
+                numbersByKey.put(entry.getKey().getKey(), entry.getValue().number);
+                iterator.remove();
+            }
         }
 
-        Set<ChunkPos> visibleChunks = JourneyFactions.getFactionManager().getDiscoveredClaims(claimedChunks);
-        if (visibleChunks.isEmpty()) {
-            JourneyFactions.debugLog("Skipping overlay for faction {} - no discovered chunks yet", faction.getDisplayName());
-            return;
+        // Submit new regions. A region rebuilt under the same key keeps its label number, and
+        // the reconciler skips any overlay whose geometry and style did not actually change.
+        BitSet usedNumbers = new BitSet();
+        for (RegionOverlays existing : territory.overlays.values()) {
+            usedNumbers.set(existing.number);
+        }
+        List<Object> style = computeStyle(faction);
+        Set<String> liveIds = new HashSet<>();
+        for (TerritoryRegion region : geometry.getRegions()) {
+            if (territory.overlays.containsKey(region)) {
+                continue;
+            }
+            Integer previousNumber = numbersByKey.get(region.getKey());
+            int number = previousNumber != null && !usedNumbers.get(previousNumber)
+                ? previousNumber
+                : usedNumbers.nextClearBit(1);
+            usedNumbers.set(number);
+            RegionOverlays created = createRegionOverlays(faction, region, number, style);
+            trackRegion(created);
+            liveIds.addAll(created.overlayIds);
+            territory.overlays.put(region, created);
         }
 
-        String factionId = faction.getId();
-        RegistryKey<World> worldKey = World.OVERWORLD;
-
-        JourneyFactions.debugLog("Creating overlay for faction: {} with {} discovered chunks ({} total)",
-            faction.getDisplayName(), visibleChunks.size(), claimedChunks.size());
+        for (RegionOverlays old : replaced) {
+            regionIndex.remove(old, old.bounds);
+            unculledRegions.remove(old);
+            for (String overlayId : old.overlayIds) {
+                if (!liveIds.contains(overlayId)) {
+                    reconciler.remove(overlayId);
+                }
+            }
+        }
 
-        // Sort connected regions by size so overlays match
-        List<Set<ChunkPos>> regions = findConnectedRegions(visibleChunks);
-        regions.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        JourneyFactions.debugLog("Applied geometry for faction {}: {} regions, {} rebuilt (overlays submitted: {}, skipped: {})",
+            faction.getDisplayName(), geometry.getRegions().size(), geometry.getRebuiltCount(),
+            reconciler.getSubmittedCount(), reconciler.getSkippedCount());
+    }
 
-        JourneyFactions.debugLog("Found {} connected regions for faction {}", regions.size(), faction.getDisplayName());
+    private RegionOverlays createRegionOverlays(ClientFaction faction, TerritoryRegion region, int number, List<Object> style) {
+        RegistryKey<World> worldKey = World.OVERWORLD;
+        List<MapPolygonWithHoles> polygons = region.getPolygons();
+        ChunkArea bounds = new ChunkArea(region.getMinChunkX(), region.getMinChunkZ(), region.getMaxChunkX(), region.getMaxChunkZ());
+        RegionOverlays created = new RegionOverlays(number, bounds);
+        created.culled = shouldCull(bounds);
+        String label = number > 1 ? faction.getDisplayName() + " #" + number : faction.getDisplayName();
+        String baseId = faction.getId() + "_region_" + region.getKey();
+        boolean separateLabel = JourneyFactions.CONFIG.separateLabelOverlay;
 
         try {
-            // Build polygons with holes preserved
-            List<MapPolygonWithHoles> polygons = buildPolygonsUsingJourneyMapHelper(visibleChunks);
             if (polygons.isEmpty()) {
-                JourneyFactions.debugLog("No polygons generated for faction {}", faction.getDisplayName());
-                return;
+                JourneyFactions.debugLog("No polygons generated for region {} of faction {}", region.getKey(), faction.getDisplayName());
+                return created;
             }
             
-            JourneyFactions.debugLog("Generated {} polygons for faction {}", polygons.size(), faction.getDisplayName());
-            
             for (int i = 0; i < polygons.size(); i++) {
-                String overlayId = polygons.size() > 1 ? factionId + "_region_" + i : factionId;
-                
-                JourneyFactions.debugLog("Creating polygon overlay {} for faction {}", overlayId, faction.getDisplayName());
+                String overlayId = i == 0 ? baseId : baseId + "_" + i;
+                MapPolygonWithHoles polygon = polygons.get(i);
+                List<Object> content = Arrays.asList(polygonPoints(polygon), style, separateLabel ? null : label);
                 
                 // --- 1) Main polygon overlay ---
-                PolygonOverlay overlay = new PolygonOverlay(
-                    JourneyFactions.MOD_ID,
-                    overlayId,
-                    worldKey,
-                    createShapeProperties(faction),
-                    polygons.get(i)
-                );
-                overlay.setActiveUIs(EnumSet.of(Context.UI.Any));
-                overlay.setActiveMapTypes(EnumSet.of(Context.MapType.Any));
-                overlay.setTextProperties(createTextProperties(faction));
-                
-                if (JourneyFactions.CONFIG.separateLabelOverlay) {
-                    overlay.setLabel(null); // no built-in label
-                    JourneyFactions.debugLog("Using separate label overlay for {}", overlayId);
-                } else {
-                    overlay.setLabel(polygons.size() > 1
-                        ? faction.getDisplayName() + " #" + (i + 1)
-                        : faction.getDisplayName());
-                    JourneyFactions.debugLog("Using built-in label for {}: {}", overlayId, overlay.getLabel());
-                }
-                
-                overlay.setOverlayGroupName("faction_territories");
-                overlay.setTitle(faction.getDisplayName() + " Territory");
-                
-                if (FactionDisplayManager.isFactionDisplayEnabled()) {
-                    jmAPI.show(overlay);
-                    JourneyFactions.debugLog("Displayed polygon overlay: {}", overlayId);
-                } else {
-                    JourneyFactions.debugLog("Faction display disabled - overlay {} created but not shown", overlayId);
-                }
-                
-                factionOverlays.put(overlayId, overlay);
-                
-                // --- 2) Optional: separate label-only overlay ---
-                if (JourneyFactions.CONFIG.separateLabelOverlay) {
-                    Set<ChunkPos> region = (i < regions.size()) ? regions.get(i) : visibleChunks;
-                    BlockPos anchor;
-                    
-                                        JourneyFactions.debugLog("Computing label anchor using mode: {}", JourneyFactions.CONFIG.labelAnchorMode);
+                reconciler.submit(overlayId, content, bounds, created.culled, () -> {
+                    JourneyFactions.debugLog("Creating polygon overlay {} for faction {}", overlayId, faction.getDisplayName());
+                    PolygonOverlay overlay = new PolygonOverlay(
+                        JourneyFactions.MOD_ID,
+                        overlayId,
+                        worldKey,
+                        createShapeProperties(faction),
+                        polygon
+                    );
+                    overlay.setActiveUIs(EnumSet.of(Context.UI.Any));
+                    overlay.setActiveMapTypes(EnumSet.of(Context.MapType.Any));
+                    overlay.setTextProperties(createTextProperties(faction));
                     
-                    switch (JourneyFactions.CONFIG.labelAnchorMode) {
-                        case HULL_CENTROID:
-                            anchor = computeHullCentroid(region);
-                            JourneyFactions.debugLog("Hull centroid anchor: {}", anchor);
-                            break;
-                        case FIRST_CHUNK_CENTER:
-                            ChunkPos first = region.iterator().next();
-                            anchor = new BlockPos(first.x * 16 + 8, LABEL_Y, first.z * 16 + 8);
-                            JourneyFactions.debugLog("First chunk center anchor: {}", anchor);
-                            break;
-                        case FARTHEST_INTERIOR_CHUNK:
-                        default:
-                            anchor = computeInteriorLabelAnchor(region);
-                            JourneyFactions.debugLog("Farthest interior anchor: {}", anchor);
+                    if (separateLabel) {
+                        overlay.setLabel(null); // no built-in label
+                        JourneyFactions.debugLog("Using separate label overlay for {}", overlayId);
+                    } else {
+                        overlay.setLabel(label);
+                        JourneyFactions.debugLog("Using built-in label for {}: {}", overlayId, overlay.getLabel());
                     }
                     
-                    String labelId = overlayId + "_label";
-                    PolygonOverlay labelOverlay = createLabelOnlyOverlay(
+                    overlay.setOverlayGroupName("faction_territories");
+                    overlay.setTitle(faction.getDisplayName() + " Territory");
+                    return overlay;
+                });
+                created.overlayIds.add(overlayId);
+            }
+            
+            // --- 2) Optional: separate label-only overlay, one per region ---
+            BlockPos anchor = region.getLabelAnchor();
+            if (separateLabel && anchor != null) {
+                String labelId = baseId + "_label";
+                reconciler.submit(labelId, Arrays.asList(anchor, label, style), bounds, created.culled, () -> {
+                    JourneyFactions.debugLog("Label anchor for {}: {}", baseId, anchor);
+                    return createLabelOnlyOverlay(
                         labelId,
                         worldKey,
                         anchor,
                         createTextProperties(faction),
-                        polygons.size() > 1
-                            ? faction.getDisplayName() + " #" + (i + 1)
-                            : faction.getDisplayName()
+                        label
                     );
-                    
-                    if (FactionDisplayManager.isFactionDisplayEnabled()) {
-                        jmAPI.show(labelOverlay);
-                        JourneyFactions.debugLog("Displayed label overlay: {}", labelId);
-                    } else {
-                        JourneyFactions.debugLog("Faction display disabled - label overlay {} created but not shown", labelId);
-                    }
-                    
-                    factionOverlays.put(labelId, labelOverlay);
-                }
+                });
+                created.overlayIds.add(labelId);
             }
             
-            JourneyFactions.debugLog("=== OVERLAY CREATION COMPLETE FOR FACTION: {} ===", faction.getDisplayName());
-            
         } catch (Exception e) {
             JourneyFactions.LOGGER.error("Error creating overlay for faction {}: {}", faction.getDisplayName(), e.getMessage(), e);
             JourneyFactions.debugLog("Exception details: {}", e.toString());
         }
-    }
-    
-    /**
-     * Build polygons using JourneyMap's official PolygonHelper for proper rendering,
-     * preserving holes when present.
-     */
-    private List<MapPolygonWithHoles> buildPolygonsUsingJourneyMapHelper(Set<ChunkPos> chunks) {
-        List<MapPolygonWithHoles> polygons = new ArrayList<>();
-
-        try {
-            // Split into connected regions first
-            List<Set<ChunkPos>> regions = findConnectedRegions(chunks);
-            regions.sort((a, b) -> Integer.compare(b.size(), a.size())); // largest first
-
-            for (Set<ChunkPos> region : regions) {
-                try {
-                    // Let JourneyMap do the heavy lifting
-                    List<MapPolygonWithHoles> polysWithHoles = PolygonHelper.createChunksPolygon(region, 70);
-
-                    if (polysWithHoles != null && !polysWithHoles.isEmpty()) {
-                        polygons.addAll(polysWithHoles); // ✅ Keep holes
-                    } else {
-                        // Fallback: create simple bounding or chunk polygon
-                        MapPolygon fallback = createFallbackPolygon(region);
-                        if (fallback != null) {
-                            polygons.add(new MapPolygonWithHoles(fallback, Collections.emptyList()));
-                        }
-                    }
-                } catch (Exception e) {
-                    // If helper fails, still make something visible
-                    MapPolygon fallback = createFallbackPolygon(region);
-                    if (fallback != null) {
-                        polygons.add(new MapPolygonWithHoles(fallback, Collections.emptyList()));
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // No polygons at all if something fatal happens
-            return Collections.emptyList();
-        }
-
-        return polygons;
+        return created;
     }
 
     /**
-     * Create a fallback polygon when PolygonHelper fails
+     * Everything besides geometry that ends up in a faction's overlays
      */
-    private MapPolygon createFallbackPolygon(Set<ChunkPos> region) {
-        if (region.isEmpty()) {
-            return null;
-        }
-        
-        if (region.size() == 1) {
-            // Single chunk - create simple rectangle
-            ChunkPos chunk = region.iterator().next();
-            List<BlockPos> boundary = createChunkRectangle(chunk);
-            return new MapPolygon(boundary);
-        } else {
-            // Multiple chunks - create bounding rectangle
-            List<BlockPos> boundary = createBoundingRectangle(region);
-            return new MapPolygon(boundary);
-        }
+    private List<Object> computeStyle(ClientFaction faction) {
+        return Arrays.asList(faction.getDisplayName(), faction.getEffectiveColor().getRGB());
     }
-    
-    /**
-     * Find connected regions of chunks using flood fill
-     */
-    private List<Set<ChunkPos>> findConnectedRegions(Set<ChunkPos> chunks) {
-        List<Set<ChunkPos>> regions = new ArrayList<>();
-        Set<ChunkPos> visited = new HashSet<>();
-        
-        for (ChunkPos chunk : chunks) {
-            if (!visited.contains(chunk)) {
-                Set<ChunkPos> region = new HashSet<>();
-                floodFill(chunk, chunks, visited, region);
-                if (!region.isEmpty()) {
-                    regions.add(region);
-                }
-            }
-        }
-        
-        return regions;
-    }
-    
+
     /**
-     * Flood fill to find connected chunks
+     * The rings of a polygon as content for the reconciler. The point lists themselves are
+     * compared, so this copies nothing.
      */
-    private void floodFill(ChunkPos start, Set<ChunkPos> allChunks, Set<ChunkPos> visited, Set<ChunkPos> region) {
-        if (visited.contains(start) || !allChunks.contains(start)) {
-            return;
+    private static List<List<BlockPos>> polygonPoints(MapPolygonWithHoles polygon) {
+        List<List<BlockPos>> rings = new ArrayList<>(1 + polygon.holes.size());
+        rings.add(polygon.hull.getPoints());
+        for (MapPolygon hole : polygon.holes) {
+            rings.add(hole.getPoints());
         }
-        
-        visited.add(start);
-        region.add(start);
-        
-        // Check 4 adjacent chunks
-        ChunkPos[] neighbors = {
-            new ChunkPos(start.x + 1, start.z),     // East
-            new ChunkPos(start.x - 1, start.z),     // West
-            new ChunkPos(start.x, start.z + 1),     // South
-            new ChunkPos(start.x, start.z - 1)      // North
-        };
-        
-        for (ChunkPos neighbor : neighbors) {
-            floodFill(neighbor, allChunks, visited, region);
-        }
-    }
-    
-    /**
-     * Create a rectangle for a single chunk
-     */
-    private List<BlockPos> createChunkRectangle(ChunkPos chunk) {
-        List<BlockPos> points = new ArrayList<>();
-        int worldX = chunk.x * 16;
-        int worldZ = chunk.z * 16;
-        
-        // Create rectangle (clockwise)
-        points.add(new BlockPos(worldX, 70, worldZ));           // Top-left
-        points.add(new BlockPos(worldX + 16, 70, worldZ));      // Top-right
-        points.add(new BlockPos(worldX + 16, 70, worldZ + 16)); // Bottom-right
-        points.add(new BlockPos(worldX, 70, worldZ + 16));      // Bottom-left
-        points.add(new BlockPos(worldX, 70, worldZ));           // Close polygon
-        
-        return points;
-    }
-    
-    /**
-     * Create a bounding rectangle for multiple chunks
-     */
-    private List<BlockPos> createBoundingRectangle(Set<ChunkPos> chunks) {
-        // Find bounds
-        int minX = chunks.stream().mapToInt(c -> c.x).min().orElse(0);
-        int maxX = chunks.stream().mapToInt(c -> c.x).max().orElse(0);
-        int minZ = chunks.stream().mapToInt(c -> c.z).min().orElse(0);
-        int maxZ = chunks.stream().mapToInt(c -> c.z).max().orElse(0);
-        
-        // Convert to world coordinates
-        int worldMinX = minX * 16;
-        int worldMaxX = (maxX + 1) * 16;
-        int worldMinZ = minZ * 16;
-        int worldMaxZ = (maxZ + 1) * 16;
-        
-        List<BlockPos> points = new ArrayList<>();
-        points.add(new BlockPos(worldMinX, 70, worldMinZ));     // Top-left
-        points.add(new BlockPos(worldMaxX, 70, worldMinZ));     // Top-right
-        points.add(new BlockPos(worldMaxX, 70, worldMaxZ));     // Bottom-right
-        points.add(new BlockPos(worldMinX, 70, worldMaxZ));     // Bottom-left
-        points.add(new BlockPos(worldMinX, 70, worldMinZ));     // Close polygon
-        
-        JourneyFactions.debugLog("Created bounding rectangle: ({},{}) to ({},{}) covering {}x{} chunks",worldMinX, worldMinZ, worldMaxX, worldMaxZ, maxX - minX + 1, maxZ - minZ + 1);
-        
-        return points;
+        return rings;
     }
     
     private ShapeProperties createShapeProperties(ClientFaction faction) {
@@ -561,34 +718,67 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
     }
     
     public void clearAllOverlays() {
-        for (Map.Entry<String, PolygonOverlay> entry : factionOverlays.entrySet()) {
-            try {
-                jmAPI.remove(entry.getValue());
-            } catch (Exception e) {
-                JourneyFactions.LOGGER.error("Failed to remove faction overlay: " + entry.getKey(), e);
-            }
-        }
-        factionOverlays.clear();
+        reconciler.clear();
+        rasterRenderer.clear();
+        regionIndex.clear();
+        unculledRegions.clear();
+        territories.clear();
     }
     
     // FactionUpdateListener implementation
+    @Override
+    public void onFactionUpdated(ClientFaction faction, ClaimDiff diff) {
+        if (rasterRenderer.isEnabled()) {
+            if (diff.isEmpty()) {
+                rasterRenderer.markFactionDirty(faction);
+            } else {
+                diff.getAddedChunks().forEach(chunk -> rasterRenderer.markChunkDirty(chunk.x, chunk.z));
+                diff.getRemovedChunks().forEach(chunk -> rasterRenderer.markChunkDirty(chunk.x, chunk.z));
+            }
+            return;
+        }
+
+        FactionTerritory territory = territories.get(faction.getId());
+        if (territory != null) {
+            if (diff.isEmpty()) {
+                // Metadata change (name, color, type): every overlay needs restyling
+                territory.markFullRebuild();
+            } else {
+                touchChunks(territory, faction, diff.getAddedChunks());
+                touchChunks(territory, faction, diff.getRemovedChunks());
+            }
+        }
+        onFactionUpdated(faction);
+    }
+
     @Override
     public void onFactionUpdated(ClientFaction faction) {
+        if (rasterRenderer.isEnabled()) {
+            rasterRenderer.markFactionDirty(faction);
+            return;
+        }
+
         // Check if faction is being disbanded (has no chunks but still exists)
-        if (faction.getClaimedChunks().isEmpty()) {
+        if (faction.isEmpty()) {
             JourneyFactions.debugLog("Faction {} appears to be disbanded - just cleaning overlays", faction.getName());
+            refreshScheduler.cancel(faction.getId());
+            geometryPipeline.cancel(faction.getId());
             completelyRemoveFactionOverlays(faction.getId());
             return;
         }
         
-        // Normal update for factions with chunks
-        JourneyFactions.debugLog("Faction updated: {} - doing complete refresh", faction.getName());
-        completelyRefreshFaction(faction);
+        // Normal update for factions with chunks: rebuilt once at the end of the tick
+        JourneyFactions.debugLog("Faction updated: {} - scheduling refresh", faction.getName());
+        refreshScheduler.markDirty(faction.getId());
     }
     
     @Override
     public void onFactionRemoved(ClientFaction faction) {
         JourneyFactions.debugLog("Faction removed: {} - cleaning up all overlays", faction.getName());
+        rasterRenderer.markFactionDirty(faction);
+        refreshScheduler.cancel(faction.getId());
+        geometryPipeline.cancel(faction.getId());
+        geometryPipeline.getCache().invalidate(faction.getId());
         completelyRemoveFactionOverlays(faction.getId());
     }
     
@@ -602,98 +792,113 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
 
     @Override
     public void onChunkDiscovered(ChunkPos chunk, ClientFaction owningFaction) {
+        onChunksDiscovered(owningFaction, Collections.singletonList(chunk));
+    }
+
+    @Override
+    public void onChunksDiscovered(ClientFaction owningFaction, Collection<ChunkPos> chunks) {
         if (owningFaction == null) {
             return;
         }
+        if (rasterRenderer.isEnabled()) {
+            for (ChunkPos chunk : chunks) {
+                rasterRenderer.markChunkDirty(chunk.x, chunk.z);
+            }
+            return;
+        }
+
+        FactionTerritory territory = territories.get(owningFaction.getId());
+        if (territory != null) {
+            touchChunks(territory, owningFaction, chunks);
+        }
+        JourneyFactions.debugLog("{} chunks discovered for faction {} - scheduling refresh", chunks.size(), owningFaction.getName());
+        refreshScheduler.markDirty(owningFaction.getId());
+    }
 
-        JourneyFactions.debugLog("Chunk {} discovered for faction {} - refreshing overlays", chunk, owningFaction.getName());
-        completelyRefreshFaction(owningFaction, true);
+    @Override
+    public void onDiscoveriesReset() {
+        // Every territory was built from the old discoveries: redraw them all from the new set
+        JourneyFactions.debugLog("Discovered chunks reset - rebuilding all faction overlays");
+        territories.values().forEach(FactionTerritory::dropCells);
+        loadAllFactionOverlays();
+    }
+
+    /**
+     * Record changed chunks in every tier and update the coarse cells they fall in
+     */
+    private static void touchChunks(FactionTerritory territory, ClientFaction faction, Collection<ChunkPos> chunks) {
+        ClientFactionManager manager = JourneyFactions.getFactionManager();
+        ChunkBitmap claims = faction.getClaimBitmap();
+        for (ChunkPos chunk : chunks) {
+            territory.touch(chunk.x, chunk.z);
+            territory.updateCells(manager, claims, chunk.x, chunk.z);
+        }
     }
 
     private void completelyRemoveFactionOverlays(String factionId) {
         JourneyFactions.debugLog("=== COMPLETELY REMOVING ALL OVERLAYS FOR FACTION: {} ===", factionId);
-        
-        // Find ALL overlay IDs that could possibly belong to this faction
-        Set<String> overlaysToRemove = new HashSet<>();
-        
-        for (String overlayId : factionOverlays.keySet()) {
-            // Match exact faction ID or anything starting with faction ID + underscore
-            if (overlayId.equals(factionId) || 
-                overlayId.startsWith(factionId + "_") ||
-                overlayId.contains(factionId)) {
-                overlaysToRemove.add(overlayId);
-            }
-        }
-        
-        JourneyFactions.debugLog("Found {} overlays to remove: {}", overlaysToRemove.size(), overlaysToRemove);
-        
-        // Remove each overlay from both JourneyMap and our tracking
-        for (String overlayId : overlaysToRemove) {
-            PolygonOverlay overlay = factionOverlays.get(overlayId);
-            if (overlay != null) {
-                try {
-                    // Remove from JourneyMap
-                    jmAPI.remove(overlay);
-                    JourneyFactions.debugLog("Removed from JourneyMap: {}", overlayId);
-                } catch (Exception e) {
-                    JourneyFactions.LOGGER.error("Failed to remove overlay from JourneyMap: {} - {}", overlayId, e.getMessage());
-                }
-                
-                // Remove from our tracking
-                factionOverlays.remove(overlayId);
-                JourneyFactions.debugLog("Removed from tracking: {}", overlayId);
-            }
+
+        // The faction's own region and label overlays, straight from its index entry
+        FactionTerritory territory = territories.remove(factionId);
+        if (territory == null) {
+            JourneyFactions.debugLog("No overlays tracked for faction {}", factionId);
+            return;
         }
-        
-        // Double-check: force remove any remaining overlays that might have been missed
-        Iterator<Map.Entry<String, PolygonOverlay>> iterator = factionOverlays.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, PolygonOverlay> entry = iterator.next();
-            if (entry.getKey().contains(factionId)) {
-                try {
-                    jmAPI.remove(entry.getValue());
-                    JourneyFactions.LOGGER.warn("Force removed missed overlay: {}", entry.getKey());
-                } catch (Exception e) {
-                    JourneyFactions.LOGGER.error("Failed to force remove overlay: {}", entry.getKey());
-                }
-                iterator.remove();
-            }
+
+        int removed = 0;
+        for (RegionOverlays region : territory.overlays.values()) {
+            untrackRegion(region);
+            removed += region.overlayIds.size();
         }
+        JourneyFactions.debugLog("Removed {} overlays", removed);
         
         JourneyFactions.debugLog("=== COMPLETE REMOVAL FINISHED FOR FACTION: {} ===", factionId);
     }
 
     /**
-     * Complete clean and redraw for a faction
+     * Scheduler callback: rebuild a faction from its current state, or drop its overlays if it is gone
      */
-    private void completelyRefreshFaction(ClientFaction faction) {
-        completelyRefreshFaction(faction, false);
+    private void refreshFaction(String factionId) {
+        ClientFaction faction = JourneyFactions.getFactionManager().getFaction(factionId);
+        if (faction == null) {
+            geometryPipeline.cancel(factionId);
+            completelyRemoveFactionOverlays(factionId);
+            return;
+        }
+        completelyRefreshFaction(faction);
     }
 
-    private void completelyRefreshFaction(ClientFaction faction, boolean skipDelay) {
+    /**
+     * Complete clean and redraw for a faction
+     */
+    private void completelyRefreshFaction(ClientFaction faction) {
         String factionId = faction.getId();
         JourneyFactions.debugLog("=== COMPLETE REFRESH STARTING FOR FACTION: {} ===", faction.getName());
 
-        // Step 1: Nuclear removal of all overlays
-        completelyRemoveFactionOverlays(factionId);
+        // Step 1: Snapshot the discovered claims; geometry is built off-thread from this copy
+        ChunkBitmap claimedChunks = faction.getClaimBitmap();
+        ChunkBitmap visibleChunks = JourneyFactions.getFactionManager().getDiscoveredClaims(claimedChunks);
 
-        // Step 2: Short delay to ensure cleanup is processed
-        if (!skipDelay) {
-            try {
-                Thread.sleep(100); // 100ms delay
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        // Step 2: Nothing to draw - remove now instead of waiting on the pipeline
+        if (visibleChunks.isEmpty()) {
+            JourneyFactions.debugLog("Faction {} has no discovered chunks, not recreating overlays", faction.getName());
+            geometryPipeline.cancel(factionId);
+            completelyRemoveFactionOverlays(factionId);
+            return;
         }
 
-        // Step 3: Only recreate if faction has chunks
-        if (!faction.getClaimedChunks().isEmpty()) {
-            JourneyFactions.debugLog("Recreating overlays for faction: {} with {} chunks",
-                faction.getName(), faction.getClaimedChunks().size());
-            createOrUpdateFactionOverlay(faction, faction.getClaimedChunks());
-        } else {
-            JourneyFactions.debugLog("Faction {} has no chunks, not recreating overlays", faction.getName());
+        // Step 3: Old overlays stay on the map until the new geometry is swapped in
+        JourneyFactions.debugLog("Submitting geometry for faction: {} with {} discovered chunks ({} total)",
+            faction.getName(), visibleChunks.size(), claimedChunks.size());
+        FactionTerritory territory = territories.computeIfAbsent(factionId, id -> new FactionTerritory());
+        territory.seedCells(visibleChunks);
+        TierState tier = territory.tier(currentLod);
+        if (!JourneyFactions.CONFIG.incrementalRebuild) {
+            tier.pendingFullRebuild = true;
         }
+        ChunkBitmap touched = tier.takeTouchedForSubmit();
+        ChunkBitmap cells = currentLod == TerritoryLod.FULL ? visibleChunks : tier.cells.mutableCopy().freeze();
+        geometryPipeline.submit(factionId, cells, currentLod, touched == null ? null : tier.applied, touched);
         
         JourneyFactions.debugLog("=== COMPLETE REFRESH FINISHED FOR FACTION: {} ===", faction.getName());
     }
@@ -701,6 +906,17 @@ public class FactionOverlayManager implements ClientFactionManager.FactionUpdate
     @Override
     public void onDataCleared() {
         JourneyFactions.debugLog("Data cleared - removing all faction overlays");
+        refreshScheduler.clear();
+        geometryPipeline.cancelAll();
         clearAllOverlays();
     }
+
+    /**
+     * Joined or left a server: the next session's factions share nothing with the cached ones.
+     * A resync within a session clears the data too but keeps the cache, whose keys tell which
+     * of the resent territories are unchanged.
+     */
+    private void onSessionChanged() {
+        geometryPipeline.getCache().clear();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,328 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import io.arona74.journeyfactions.data.ClientDiscoveryTracker;
+import io.arona74.journeyfactions.data.DiscoveryStore;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import journeymap.client.api.IClientAPI;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Seeds the discovered chunks from JourneyMap's own region image cache, so every chunk the
+ * player has ever mapped counts as discovered, not just the ones walked past since joining.
+ *
+ * JourneyMap stores a 512x512-pixel image per 512x512-block region per map type under the
+ * world's data folder, the same 32x32-chunk grid as {@link ChunkBitmap} tiles. A chunk counts as
+ * mapped if any of a few sample pixels inside it is not transparent.
+ *
+ * Started each time mapping starts, on a single low-priority thread, nearest regions first
+ * and at most {@link #FILES_PER_SECOND} images a second. Results reach the faction manager on
+ * the client thread a few regions at a time; a newer start or a stop discards the rest.
+ *
+ * With discovery persistence on, the {@link DiscoveryStore} keeps a record of every image
+ * imported and its modification time, written once the chunks it contributed are saved. Only
+ * images that are new or were re-rendered since are read, so after the first import a start
+ * usually reads a handful of images or none. Without persistence nothing outlives the session
+ * and every start reads them all.
+ */
+public class JourneyMapDiscoveryImporter {
+
+    private static final Pattern REGION_FILE = Pattern.compile("(-?\\d+),(-?\\d+)\\.png");
+    private static final int REGION_BLOCKS = ChunkBitmap.TILE_SIZE * 16;
+    private static final int FILES_PER_SECOND = 50;
+    private static final int REGIONS_PER_BATCH = 8;
+    // Sample points inside a chunk, in blocks from its corner
+    private static final int[] SAMPLES = {4, 11};
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JourneyFactions-JourneyMap-Import");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * One cached image, with the name and modification time it is recorded under
+     */
+    private static final class RegionImage {
+        final File file;
+        final String name;
+        final String modified;
+
+        RegionImage(File file, String name, long modified) {
+            this.file = file;
+            this.name = name;
+            this.modified = Long.toString(modified);
+        }
+    }
+
+    private final IClientAPI jmAPI;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public JourneyMapDiscoveryImporter(IClientAPI jmAPI) {
+        this.jmAPI = jmAPI;
+    }
+
+    /**
+     * Scan the cached images of the given dimension (or the player's, if null) in the background
+     */
+    public void start(RegistryKey<World> dimension) {
+        int run = generation.incrementAndGet();
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (dimension == null) {
+            if (client.world == null) {
+                return;
+            }
+            dimension = client.world.getRegistryKey();
+        }
+
+        File worldDirectory;
+        try {
+            worldDirectory = jmAPI.getDataPath(JourneyFactions.MOD_ID).getParentFile();
+        } catch (Exception e) {
+            JourneyFactions.LOGGER.error("Failed to locate JourneyMap data folder: {}", e.getMessage());
+            return;
+        }
+        File dimensionDirectory = findDimensionDirectory(worldDirectory, dimension.getValue());
+        if (dimensionDirectory == null) {
+            JourneyFactions.debugLog("No JourneyMap map cache for {} in {}", dimension.getValue(), worldDirectory);
+            return;
+        }
+
+        int playerRegionX = client.player != null ? client.player.getBlockX() >> 9 : 0;
+        int playerRegionZ = client.player != null ? client.player.getBlockZ() >> 9 : 0;
+        RegistryKey<World> importedDimension = dimension;
+        DiscoveryStore store = ClientDiscoveryTracker.getCurrentStore(client);
+        EXECUTOR.execute(() -> scan(run, importedDimension, store, dimensionDirectory, playerRegionX, playerRegionZ));
+    }
+
+    /**
+     * Abandon a running scan; chunks already handed over stay discovered
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * JourneyMap has named dimension folders "namespace~path", plain "path" and, for vanilla
+     * dimensions, "DIMn" over the versions
+     */
+    private static File findDimensionDirectory(File worldDirectory, Identifier dimension) {
+        if (worldDirectory == null) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        names.add(dimension.getNamespace() + "~" + dimension.getPath());
+        names.add(dimension.getPath());
+        if ("minecraft".equals(dimension.getNamespace())) {
+            switch (dimension.getPath()) {
+                case "overworld" -> names.add("DIM0");
+                case "the_nether" -> names.add("DIM-1");
+                case "the_end" -> names.add("DIM1");
+                default -> { }
+            }
+        }
+        for (String name : names) {
+            File directory = new File(worldDirectory, name);
+            if (directory.isDirectory()) {
+                return directory;
+            }
+        }
+        return null;
+    }
+
+    // Import thread only
+
+    private boolean isCurrent(int run) {
+        return generation.get() == run;
+    }
+
+    private void scan(int run, RegistryKey<World> dimension, DiscoveryStore store, File dimensionDirectory, int playerRegionX, int playerRegionZ) {
+        Properties record = store != null ? store.readImportRecord() : new Properties();
+
+        // Every map type (day, night, topo, cave layers) holds its own image of a region
+        Long2ObjectOpenHashMap<List<RegionImage>> regions = new Long2ObjectOpenHashMap<>();
+        File[] mapTypes = dimensionDirectory.listFiles(File::isDirectory);
+        if (mapTypes == null) {
+            return;
+        }
+        int unchanged = 0;
+        for (File mapType : mapTypes) {
+            File[] images = mapType.listFiles((directory, name) -> REGION_FILE.matcher(name).matches());
+            if (images == null) {
+                continue;
+            }
+            for (File image : images) {
+                Matcher matcher = REGION_FILE.matcher(image.getName());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                long regionKey;
+                try {
+                    regionKey = ChunkPos.toLong(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                // Taken before reading, so an image re-rendered mid-read is read again next time
+                RegionImage regionImage = new RegionImage(image, mapType.getName() + "/" + image.getName(), image.lastModified());
+                if (regionImage.modified.equals(record.getProperty(regionImage.name))) {
+                    unchanged++;
+                    continue;
+                }
+                regions.computeIfAbsent(regionKey, key -> new ArrayList<>()).add(regionImage);
+            }
+        }
+
+        List<Long2ObjectMap.Entry<List<RegionImage>>> ordered = new ArrayList<>(regions.long2ObjectEntrySet());
+        ordered.sort(Comparator.comparingLong(entry -> {
+            long dx = ChunkPos.getPackedX(entry.getLongKey()) - playerRegionX;
+            long dz = ChunkPos.getPackedZ(entry.getLongKey()) - playerRegionZ;
+            return dx * dx + dz * dz;
+        }));
+        JourneyFactions.debugLog("Importing JourneyMap map cache from {}: {} regions ({} images unchanged since the last import)",
+            dimensionDirectory, ordered.size(), unchanged);
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        long nanosPerFile = 1_000_000_000L / FILES_PER_SECOND;
+        long nextRead = System.nanoTime();
+        int filesRead = 0;
+        int chunksFound = 0;
+        Long2ObjectOpenHashMap<long[]> batch = new Long2ObjectOpenHashMap<>();
+        Properties imported = new Properties();
+        for (Long2ObjectMap.Entry<List<RegionImage>> region : ordered) {
+            long[] words = new long[ChunkBitmap.WORDS_PER_TILE];
+            for (RegionImage image : region.getValue()) {
+                if (!isCurrent(run)) {
+                    return;
+                }
+                // Bounded I/O: never read faster than FILES_PER_SECOND
+                long wait = nextRead - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                nextRead = Math.max(nextRead, System.nanoTime()) + nanosPerFile;
+                filesRead++;
+
+                if (readMappedChunks(image.file, words)) {
+                    break; // every chunk of the region is mapped already
+                }
+            }
+            // Images skipped above add nothing to a full region, so they count as imported too
+            for (RegionImage image : region.getValue()) {
+                imported.setProperty(image.name, image.modified);
+            }
+
+            int found = 0;
+            for (long word : words) {
+                found += Long.bitCount(word);
+            }
+            if (found > 0) {
+                chunksFound += found;
+                batch.put(region.getLongKey(), words);
+            }
+            if (batch.size() >= REGIONS_PER_BATCH) {
+                deliver(run, dimension, batch, record, imported, null);
+                batch = new Long2ObjectOpenHashMap<>();
+                imported = new Properties();
+            }
+        }
+        deliver(run, dimension, batch, record, imported, store);
+        JourneyFactions.debugLog("JourneyMap map cache import finished: {} images, {} chunks", filesRead, chunksFound);
+    }
+
+    /**
+     * OR the chunks mapped in one region image into {@code words}
+     *
+     * @return true once every chunk of the region is set
+     */
+    private static boolean readMappedChunks(File file, long[] words) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(file);
+        } catch (IOException e) {
+            JourneyFactions.debugLog("Skipping unreadable JourneyMap image {}: {}", file, e.getMessage());
+            return false;
+        }
+        if (image == null) {
+            return false;
+        }
+
+        // Images are normally one pixel per block, but don't rely on it
+        double scaleX = image.getWidth() / (double) REGION_BLOCKS;
+        double scaleZ = image.getHeight() / (double) REGION_BLOCKS;
+        boolean full = true;
+        for (int localZ = 0; localZ < ChunkBitmap.TILE_SIZE; localZ++) {
+            for (int localX = 0; localX < ChunkBitmap.TILE_SIZE; localX++) {
+                int bit = (localZ << ChunkBitmap.TILE_SHIFT) | localX;
+                long mask = 1L << bit;
+                if ((words[bit >>> 6] & mask) == 0 && isChunkMapped(image, localX, localZ, scaleX, scaleZ)) {
+                    words[bit >>> 6] |= mask;
+                }
+                full &= (words[bit >>> 6] & mask) != 0;
+            }
+        }
+        return full;
+    }
+
+    private static boolean isChunkMapped(BufferedImage image, int localX, int localZ, double scaleX, double scaleZ) {
+        for (int sampleZ : SAMPLES) {
+            for (int sampleX : SAMPLES) {
+                int x = Math.min(image.getWidth() - 1, (int) (((localX << 4) + sampleX) * scaleX));
+                int z = Math.min(image.getHeight() - 1, (int) (((localZ << 4) + sampleZ) * scaleZ));
+                if ((image.getRGB(x, z) >>> 24) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hand a batch of regions to the faction manager and add its images to {@code record}; the
+     * last batch of a scan also passes the store to save the record in
+     */
+    private void deliver(int run, RegistryKey<World> dimension, Long2ObjectOpenHashMap<long[]> tiles,
+                         Properties record, Properties imported, DiscoveryStore store) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        client.execute(() -> {
+            // Mapping restarted, or the player left the dimension, since the scan began
+            if (!isCurrent(run) || client.world == null || client.world.getRegistryKey() != dimension) {
+                return;
+            }
+            for (Long2ObjectMap.Entry<long[]> tile : tiles.long2ObjectEntrySet()) {
+                JourneyFactions.getFactionManager().importDiscoveredTile(tile.getLongKey(), tile.getValue());
+            }
+            record.putAll(imported);
+            if (store != null && store == ClientDiscoveryTracker.getCurrentStore(client)) {
+                store.saveImportRecord(record);
+            }
+        });
+    }
+}
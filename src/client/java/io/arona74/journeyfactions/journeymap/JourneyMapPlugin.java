@@ -4,6 +4,7 @@ import io.arona74.journeyfactions.JourneyFactions;
 import journeymap.client.api.IClientAPI;
 import journeymap.client.api.IClientPlugin;
 import journeymap.client.api.event.ClientEvent;
+import journeymap.client.api.event.DisplayUpdateEvent;
 
 import java.util.EnumSet;
 
@@ -12,6 +13,7 @@ public class JourneyMapPlugin implements IClientPlugin {
     private static final String PLUGIN_ID = "journeyfactions";
     private IClientAPI jmAPI;
     private FactionOverlayManager overlayManager;
+    private JourneyMapDiscoveryImporter discoveryImporter;
     
     public JourneyMapPlugin() {
         JourneyFactions.debugLog("JourneyMapPlugin constructor called");
@@ -23,6 +25,7 @@ public class JourneyMapPlugin implements IClientPlugin {
         
         this.jmAPI = jmClientApi;
         this.overlayManager = new FactionOverlayManager(jmClientApi);
+        this.discoveryImporter = new JourneyMapDiscoveryImporter(jmClientApi);
         
         JourneyFactions.debugLog("JourneyMap integration initialized");
         
@@ -67,13 +70,20 @@ public class JourneyMapPlugin implements IClientPlugin {
                 case MAPPING_STARTED:
                     JourneyFactions.debugLog("JourneyMap mapping started - creating overlays");
                     overlayManager.onMappingStarted();
+                    if (JourneyFactions.CONFIG.importJourneyMapExplored) {
+                        discoveryImporter.start(event.dimension);
+                    }
                     break;
                 case MAPPING_STOPPED:
                     JourneyFactions.debugLog("JourneyMap mapping stopped");
+                    discoveryImporter.cancel();
                     overlayManager.onMappingStopped();
                     break;
                 case DISPLAY_UPDATE:
                     JourneyFactions.debugLog("JourneyMap display update");
+                    if (event instanceof DisplayUpdateEvent) {
+                        overlayManager.updateViewport(((DisplayUpdateEvent) event).uiState);
+                    }
                     overlayManager.updateDisplay();
                     break;
                 default:
@@ -110,9 +120,17 @@ public class JourneyMapPlugin implements IClientPlugin {
      * Get plugin information
      */
     public String getPluginInfo() {
-        return String.format("JourneyFactions Plugin | API: %s | Overlays: %d", 
+        TerritoryGeometryCache cache = overlayManager != null ? overlayManager.getGeometryCache() : null;
+        return String.format("JourneyFactions Plugin | API: %s | Overlays: %d | Queued: %d | Submitted: %d | Skipped: %d | Geometry cache: %d hits, %d misses, %d evictions, %d KB", 
             jmAPI != null ? "Connected" : "Disconnected",
-            overlayManager != null ? overlayManager.getOverlayCount() : 0);
+            overlayManager != null ? overlayManager.getOverlayCount() : 0,
+            overlayManager != null ? overlayManager.getApplyQueueDepth() : 0,
+            overlayManager != null ? overlayManager.getSubmittedOverlayCount() : 0,
+            overlayManager != null ? overlayManager.getSkippedOverlayCount() : 0,
+            cache != null ? cache.getHitCount() : 0,
+            cache != null ? cache.getMissCount() : 0,
+            cache != null ? cache.getEvictionCount() : 0,
+            cache != null ? cache.getEstimatedBytes() / 1024 : 0);
     }
     
     /**
@@ -0,0 +1,132 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkArea;
+import journeymap.client.api.display.Context;
+import journeymap.client.api.util.UIState;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockBox;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where JourneyMap is currently looking, per UI. Fullscreen (and webmap) views come from the
+ * block bounds of display update events; while JourneyMap reports the minimap active, its view
+ * is re-centred on the player whenever they cross a chunk border, keeping the size of the last
+ * minimap event it saw. A hidden minimap has no view. The block size
+ * (pixels per block) of each view is kept alongside for level-of-detail decisions.
+ */
+public class MapViewport {
+
+    private final Map<Context.UI, ChunkArea> views = new EnumMap<>(Context.UI.class);
+    private final Map<Context.UI, Double> blockSizes = new EnumMap<>(Context.UI.class);
+    private final Runnable listener;
+    private boolean minimapActive;
+    private int minimapHalfWidth;
+    private int minimapHalfHeight;
+    private int playerChunkX;
+    private int playerChunkZ;
+    private boolean hasPlayerChunk;
+
+    /**
+     * @param listener called on the client thread whenever any view changes
+     */
+    public MapViewport(Runnable listener) {
+        this.listener = listener;
+        ClientTickEvents.END_CLIENT_TICK.register(this::trackPlayer);
+    }
+
+    public void update(UIState state) {
+        if (state == null || state.ui == null) {
+            return;
+        }
+
+        ChunkArea next = null;
+        BlockBox bounds = state.blockBounds;
+        if (state.active && bounds != null) {
+            next = ChunkArea.fromBlocks(bounds.getMinX(), bounds.getMinZ(), bounds.getMaxX(), bounds.getMaxZ());
+            blockSizes.put(state.ui, state.blockSize);
+            if (state.ui == Context.UI.Minimap) {
+                minimapActive = true;
+                minimapHalfWidth = (next.getMaxChunkX() - next.getMinChunkX() + 1) / 2;
+                minimapHalfHeight = (next.getMaxChunkZ() - next.getMinChunkZ() + 1) / 2;
+            }
+        } else if (state.ui == Context.UI.Minimap) {
+            minimapActive = false;
+        }
+        setView(state.ui, next);
+    }
+
+    private void trackPlayer(MinecraftClient client) {
+        if (client.player == null || !minimapActive) {
+            return;
+        }
+        int chunkX = client.player.getBlockX() >> 4;
+        int chunkZ = client.player.getBlockZ() >> 4;
+        if (hasPlayerChunk && chunkX == playerChunkX && chunkZ == playerChunkZ) {
+            return;
+        }
+        hasPlayerChunk = true;
+        playerChunkX = chunkX;
+        playerChunkZ = chunkZ;
+        setView(Context.UI.Minimap, new ChunkArea(
+            chunkX - minimapHalfWidth, chunkZ - minimapHalfHeight,
+            chunkX + minimapHalfWidth, chunkZ + minimapHalfHeight));
+    }
+
+    private void setView(Context.UI ui, ChunkArea area) {
+        if (area == null) {
+            blockSizes.remove(ui);
+        }
+        ChunkArea previous = area != null ? views.put(ui, area) : views.remove(ui);
+        if (area == null ? previous != null : !area.equals(previous)) {
+            listener.run();
+        }
+    }
+
+    public boolean hasView() {
+        return !views.isEmpty();
+    }
+
+    public List<ChunkArea> getViews() {
+        return new ArrayList<>(views.values());
+    }
+
+    /**
+     * Pixels per block of the view the player is looking at: the fullscreen map while it is
+     * open (it covers the minimap), otherwise the most zoomed-in view. 0 when unknown.
+     */
+    public double getBlockSize() {
+        Double fullscreen = blockSizes.get(Context.UI.Fullscreen);
+        if (fullscreen != null) {
+            return fullscreen;
+        }
+        double blockSize = 0;
+        for (double size : blockSizes.values()) {
+            blockSize = Math.max(blockSize, size);
+        }
+        return blockSize;
+    }
+
+    /**
+     * True if {@code bounds} lies within {@code margin} chunks of any current view
+     */
+    public boolean isNear(ChunkArea bounds, int margin) {
+        for (ChunkArea view : views.values()) {
+            if (view.expand(margin).intersects(bounds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        views.clear();
+        blockSizes.clear();
+        minimapActive = false;
+        hasPlayerChunk = false;
+    }
+}
@@ -0,0 +1,153 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.data.ChunkArea;
+import journeymap.client.api.IClientAPI;
+import journeymap.client.api.display.Overlay;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The only place overlays are handed to or taken from JourneyMap. Show and remove calls are
+ * queued per overlay ID and drained at the end of each client tick, at most a configured number
+ * per tick and within a time budget, so a full sync spreads over several ticks instead of
+ * stalling one frame.
+ *
+ * JourneyMap identifies displayables by ID, so only the latest operation per ID matters: a
+ * show queued after a remove of the same ID simply replaces it. Operations are kept sorted:
+ * overlays on screen go first, then the rest by distance to the player, both as of when the
+ * operation was queued. Draining a tick then takes from the front without sorting the backlog.
+ */
+public class OverlayApplyQueue {
+
+    private static final class Operation {
+        final String overlayId;
+        final Overlay overlay;
+        final boolean show;
+        final long priority;
+        final long sequence;
+
+        Operation(String overlayId, Overlay overlay, boolean show, long priority, long sequence) {
+            this.overlayId = overlayId;
+            this.overlay = overlay;
+            this.show = show;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    // Ties keep queue order
+    private static final Comparator<Operation> BY_PRIORITY =
+        Comparator.<Operation>comparingLong(operation -> operation.priority).thenComparingLong(operation -> operation.sequence);
+
+    private final IClientAPI jmAPI;
+    private final MapViewport viewport;
+    private final Map<String, Operation> pending = new HashMap<>();
+    private final TreeSet<Operation> order = new TreeSet<>(BY_PRIORITY);
+    private long nextSequence;
+
+    public OverlayApplyQueue(IClientAPI jmAPI, MapViewport viewport) {
+        this.jmAPI = jmAPI;
+        this.viewport = viewport;
+        ClientTickEvents.END_CLIENT_TICK.register(this::drain);
+    }
+
+    /**
+     * @param bounds where the overlay is, for prioritising; null sorts last
+     */
+    public void show(String overlayId, Overlay overlay, ChunkArea bounds) {
+        enqueue(new Operation(overlayId, overlay, true, priority(bounds), nextSequence++));
+    }
+
+    public void remove(String overlayId, Overlay overlay, ChunkArea bounds) {
+        enqueue(new Operation(overlayId, overlay, false, priority(bounds), nextSequence++));
+    }
+
+    /**
+     * Take every overlay of this mod off the map with a single JourneyMap call and drop
+     * whatever is still queued
+     */
+    public void removeAll() {
+        pending.clear();
+        order.clear();
+        try {
+            jmAPI.removeAll(JourneyFactions.MOD_ID);
+        } catch (Exception e) {
+            JourneyFactions.LOGGER.error("Failed to remove overlays from JourneyMap: {}", e.getMessage());
+        }
+    }
+
+    public boolean isPending(String overlayId) {
+        return pending.containsKey(overlayId);
+    }
+
+    public int getDepth() {
+        return pending.size();
+    }
+
+    private void enqueue(Operation operation) {
+        Operation previous = pending.put(operation.overlayId, operation);
+        if (previous != null) {
+            order.remove(previous);
+        }
+        order.add(operation);
+    }
+
+    private void drain(MinecraftClient client) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int limit = JourneyFactions.CONFIG.overlayApplyPerTick;
+        long budgetNanos = JourneyFactions.CONFIG.overlayApplyBudgetMillis * 1_000_000L;
+        long start = System.nanoTime();
+        int applied = 0;
+        while (!order.isEmpty() && applied < limit && System.nanoTime() - start < budgetNanos) {
+            Operation operation = order.pollFirst();
+            pending.remove(operation.overlayId);
+            apply(operation);
+            applied++;
+        }
+
+        JourneyFactions.debugLog("Applied {} overlay changes this tick ({} still queued)", applied, pending.size());
+    }
+
+    private long priority(ChunkArea bounds) {
+        if (bounds == null) {
+            return Long.MAX_VALUE;
+        }
+        ClientPlayerEntity player = MinecraftClient.getInstance().player;
+        long distance = 0;
+        if (player != null) {
+            // Squared distance from the player's chunk to the nearest chunk of the overlay
+            int playerChunkX = player.getBlockX() >> 4;
+            int playerChunkZ = player.getBlockZ() >> 4;
+            long dx = Math.max(0, Math.max(bounds.getMinChunkX() - playerChunkX, playerChunkX - bounds.getMaxChunkX()));
+            long dz = Math.max(0, Math.max(bounds.getMinChunkZ() - playerChunkZ, playerChunkZ - bounds.getMaxChunkZ()));
+            distance = dx * dx + dz * dz;
+        }
+        return viewport.isNear(bounds, 0) ? distance : (1L << 62) + distance;
+    }
+
+    private void apply(Operation operation) {
+        if (operation.show) {
+            try {
+                jmAPI.show(operation.overlay);
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Failed to show overlay in JourneyMap: {} - {}", operation.overlayId, e.getMessage());
+            }
+        } else {
+            try {
+                jmAPI.remove(operation.overlay);
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Failed to remove overlay from JourneyMap: {} - {}", operation.overlayId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkArea;
+import journeymap.client.api.display.Overlay;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sits between the overlay manager and JourneyMap and only forwards real changes.
+ *
+ * Every overlay is tracked under its stable ID together with a value describing its geometry
+ * and style. Re-submitting an ID with equal content keeps the overlay JourneyMap already has;
+ * anything else replaces it. Content is compared with {@code equals}, never just by hash, so
+ * a hash collision can't swallow a real change. Counters record how many submissions reached
+ * JourneyMap and how many were skipped. Whatever does need to change in JourneyMap goes
+ * through the {@link OverlayApplyQueue}.
+ */
+public class OverlayReconciler {
+
+    private static final class Entry {
+        final Overlay overlay;
+        final Object content;
+        final ChunkArea bounds;
+        boolean culled;
+        // Equal to the reconciler's epoch while the overlay is (queued to be) in JourneyMap
+        int shownEpoch;
+
+        Entry(Overlay overlay, Object content, ChunkArea bounds) {
+            this.overlay = overlay;
+            this.content = content;
+            this.bounds = bounds;
+        }
+    }
+
+    private final OverlayApplyQueue applyQueue;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean visible = true;
+    // Bumped whenever everything is taken off the map at once, which un-shows every entry in O(1)
+    private int epoch = 1;
+
+    private long submittedCount;
+    private long skippedCount;
+
+    public OverlayReconciler(OverlayApplyQueue applyQueue) {
+        this.applyQueue = applyQueue;
+    }
+
+    /**
+     * Make {@code overlayId} show the overlay built by {@code factory}, unless an overlay with
+     * equal content is already in place (then the factory is not called at all).
+     * A culled overlay is tracked but kept out of JourneyMap until {@link #setCulled} clears it.
+     *
+     * @param content everything the overlay is built from; must implement {@code equals}
+     * @param bounds chunks the overlay covers, used to apply nearby overlays first
+     * @return true if the overlay was (re)built
+     */
+    public boolean submit(String overlayId, Object content, ChunkArea bounds, boolean culled, Supplier<? extends Overlay> factory) {
+        Entry current = entries.get(overlayId);
+        if (current != null && current.content.equals(content)) {
+            skippedCount++;
+            setCulled(overlayId, culled);
+            return false;
+        }
+
+        if (current != null) {
+            hide(overlayId, current);
+        }
+        Entry entry = new Entry(factory.get(), content, bounds);
+        entry.culled = culled;
+        entries.put(overlayId, entry);
+        if (visible && !culled) {
+            show(overlayId, entry);
+        }
+        submittedCount++;
+        return true;
+    }
+
+    /**
+     * Viewport culling: keep a tracked overlay out of JourneyMap (or let it back in)
+     */
+    public void setCulled(String overlayId, boolean culled) {
+        Entry entry = entries.get(overlayId);
+        if (entry == null || entry.culled == culled) {
+            return;
+        }
+        entry.culled = culled;
+        if (culled) {
+            hide(overlayId, entry);
+        } else if (visible) {
+            show(overlayId, entry);
+        }
+    }
+
+    public void remove(String overlayId) {
+        Entry entry = entries.remove(overlayId);
+        if (entry != null) {
+            hide(overlayId, entry);
+        }
+    }
+
+    public void removeAll(Collection<String> overlayIds) {
+        for (String overlayId : overlayIds) {
+            remove(overlayId);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        applyQueue.removeAll();
+        epoch++;
+    }
+
+    /**
+     * Show or hide everything without forgetting it, for the faction display toggle. Hiding is
+     * one JourneyMap call; built overlays stay resident here, and showing re-queues them so the
+     * apply queue brings them back on screen first, spread over as many ticks as it needs.
+     */
+    public void setVisible(boolean visible) {
+        if (this.visible == visible) {
+            return;
+        }
+        this.visible = visible;
+        if (!visible) {
+            applyQueue.removeAll();
+            epoch++;
+            return;
+        }
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!entry.getValue().culled) {
+                show(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void show(String overlayId, Entry entry) {
+        if (entry.shownEpoch == epoch) {
+            return;
+        }
+        applyQueue.show(overlayId, entry.overlay, entry.bounds);
+        entry.shownEpoch = epoch;
+    }
+
+    private void hide(String overlayId, Entry entry) {
+        if (entry.shownEpoch != epoch) {
+            return;
+        }
+        applyQueue.remove(overlayId, entry.overlay, entry.bounds);
+        entry.shownEpoch = 0;
+    }
+
+    /**
+     * True while a show or remove of {@code overlayId} is still waiting to reach JourneyMap
+     */
+    public boolean isPending(String overlayId) {
+        return applyQueue.isPending(overlayId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getSubmittedCount() { return submittedCount; }
+    public long getSkippedCount() { return skippedCount; }
+}
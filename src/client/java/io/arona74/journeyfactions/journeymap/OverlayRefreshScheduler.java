@@ -0,0 +1,75 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Collects factions whose overlays need rebuilding and rebuilds them at the end of the client tick.
+ * Several updates to the same faction within a tick merge into one rebuild, and each tick only
+ * spends up to the configured time budget; whatever is left waits for the next tick.
+ */
+public class OverlayRefreshScheduler {
+
+    private final Set<String> dirtyFactions = new LinkedHashSet<>();
+    private final Consumer<String> refresher;
+
+    public OverlayRefreshScheduler(Consumer<String> refresher) {
+        this.refresher = refresher;
+        ClientTickEvents.END_CLIENT_TICK.register(client -> flush());
+    }
+
+    /**
+     * Queue a rebuild for the faction; repeated calls before the next flush are merged
+     */
+    public void markDirty(String factionId) {
+        if (dirtyFactions.add(factionId)) {
+            JourneyFactions.debugLog("Faction {} scheduled for overlay refresh", factionId);
+        }
+    }
+
+    public void cancel(String factionId) {
+        dirtyFactions.remove(factionId);
+    }
+
+    public void clear() {
+        dirtyFactions.clear();
+    }
+
+    /**
+     * Rebuild dirty factions until the per-tick budget is used up (at least one per call)
+     */
+    public void flush() {
+        if (dirtyFactions.isEmpty()) {
+            return;
+        }
+
+        long budgetNanos = JourneyFactions.CONFIG.refreshBudgetMillis * 1_000_000L;
+        long start = System.nanoTime();
+        int processed = 0;
+
+        Iterator<String> iterator = dirtyFactions.iterator();
+        while (iterator.hasNext()) {
+            String factionId = iterator.next();
+            iterator.remove();
+            try {
+                refresher.accept(factionId);
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Error refreshing overlays for faction {}", factionId, e);
+            }
+            processed++;
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+            // The refresher may have queued more work; restart iteration on the live set
+            iterator = dirtyFactions.iterator();
+        }
+
+        JourneyFactions.debugLog("Refreshed {} faction overlays this tick ({} still pending)", processed, dirtyFactions.size());
+    }
+}
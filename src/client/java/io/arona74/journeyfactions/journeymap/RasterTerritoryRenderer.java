@@ -0,0 +1,289 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.data.ChunkArea;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import io.arona74.journeyfactions.data.ClientFaction;
+import io.arona74.journeyfactions.data.ClientFactionManager;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import journeymap.client.api.display.Context;
+import journeymap.client.api.display.ImageOverlay;
+import journeymap.client.api.model.MapImage;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Alternative to per-region polygons for worlds with huge claim counts: ownership is rasterised
+ * into one image per 32x32-chunk tile (a 512x512-block region file), one pixel per chunk, and
+ * shown as a JourneyMap ImageOverlay. JourneyMap then draws at most one overlay per region no
+ * matter how many factions own land in it.
+ *
+ * A tile is re-rendered only when a chunk inside it (or right next to it, for border pixels) is
+ * claimed, unclaimed or discovered, a few tiles per tick within the refresh budget. A render
+ * that comes out pixel-identical is skipped by the reconciler.
+ *
+ * Tile images live off-heap. The image of a replaced or removed tile is closed once JourneyMap
+ * has let go of it, i.e. once nothing is left queued for that overlay ID.
+ *
+ * Tiles are drawn in the dimension the player is in when they render. Claims are not tracked
+ * per dimension, so on a dimension change every drawn tile is rendered again for the new one.
+ */
+public class RasterTerritoryRenderer {
+
+    private static final int PIXELS = ChunkBitmap.TILE_SIZE * ChunkBitmap.TILE_SIZE;
+    private static final int TILE_MASK = ChunkBitmap.TILE_SIZE - 1;
+    private static final int FILL_ALPHA = 64;
+    private static final int BORDER_ALPHA = 224;
+
+    private static final class RetiredImage {
+        final String overlayId;
+        final NativeImage image;
+
+        RetiredImage(String overlayId, NativeImage image) {
+            this.overlayId = overlayId;
+            this.image = image;
+        }
+    }
+
+    private final OverlayReconciler reconciler;
+    private final LongOpenHashSet dirtyTiles = new LongOpenHashSet();
+    // Image of each tile's current overlay, and replaced ones JourneyMap may still hold
+    private final Long2ObjectOpenHashMap<NativeImage> images = new Long2ObjectOpenHashMap<>();
+    private final List<RetiredImage> retiredImages = new ArrayList<>();
+    private RegistryKey<World> dimension;
+    private boolean enabled;
+
+    public RasterTerritoryRenderer(OverlayReconciler reconciler) {
+        this.reconciler = reconciler;
+        ClientTickEvents.END_CLIENT_TICK.register(this::flush);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            dirtyTiles.clear();
+        }
+    }
+
+    /**
+     * Queue the tile holding the chunk, plus the neighbouring tile when the chunk sits on a
+     * tile edge (that tile's border pixels depend on it)
+     */
+    public void markChunkDirty(int chunkX, int chunkZ) {
+        if (!enabled) {
+            return;
+        }
+        int tileX = chunkX >> ChunkBitmap.TILE_SHIFT;
+        int tileZ = chunkZ >> ChunkBitmap.TILE_SHIFT;
+        dirtyTiles.add(ChunkPos.toLong(tileX, tileZ));
+        int localX = chunkX & TILE_MASK;
+        int localZ = chunkZ & TILE_MASK;
+        if (localX == 0) dirtyTiles.add(ChunkPos.toLong(tileX - 1, tileZ));
+        if (localX == TILE_MASK) dirtyTiles.add(ChunkPos.toLong(tileX + 1, tileZ));
+        if (localZ == 0) dirtyTiles.add(ChunkPos.toLong(tileX, tileZ - 1));
+        if (localZ == TILE_MASK) dirtyTiles.add(ChunkPos.toLong(tileX, tileZ + 1));
+    }
+
+    /**
+     * Queue every tile the faction claims in, and their neighbours
+     */
+    public void markFactionDirty(ClientFaction faction) {
+        if (!enabled) {
+            return;
+        }
+        faction.getClaimBitmap().forEachTile(key -> {
+            int tileX = ChunkBitmap.tileX(key);
+            int tileZ = ChunkBitmap.tileZ(key);
+            dirtyTiles.add(key);
+            dirtyTiles.add(ChunkPos.toLong(tileX - 1, tileZ));
+            dirtyTiles.add(ChunkPos.toLong(tileX + 1, tileZ));
+            dirtyTiles.add(ChunkPos.toLong(tileX, tileZ - 1));
+            dirtyTiles.add(ChunkPos.toLong(tileX, tileZ + 1));
+        });
+    }
+
+    /**
+     * Forget every tile. Only call once the reconciler has taken the overlays off the map,
+     * since this closes their images right away.
+     */
+    public void clear() {
+        dirtyTiles.clear();
+        for (NativeImage image : images.values()) {
+            image.close();
+        }
+        images.clear();
+        for (RetiredImage retired : retiredImages) {
+            retired.image.close();
+        }
+        retiredImages.clear();
+    }
+
+    /**
+     * Render dirty tiles until the per-tick budget is used up (at least one per call)
+     */
+    public void flush(MinecraftClient client) {
+        closeRetiredImages();
+        if (client.world == null) {
+            return;
+        }
+        if (client.world.getRegistryKey() != dimension) {
+            // Everything on the map belongs to the dimension we just left
+            dimension = client.world.getRegistryKey();
+            dirtyTiles.addAll(images.keySet());
+        }
+        if (dirtyTiles.isEmpty()) {
+            return;
+        }
+
+        long budgetNanos = JourneyFactions.CONFIG.refreshBudgetMillis * 1_000_000L;
+        long start = System.nanoTime();
+        int processed = 0;
+
+        LongIterator iterator = dirtyTiles.iterator();
+        while (iterator.hasNext()) {
+            long tileKey = iterator.nextLong();
+            iterator.remove();
+            try {
+                renderTile(tileKey, dimension);
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Error rendering territory tile {},{}", ChunkBitmap.tileX(tileKey), ChunkBitmap.tileZ(tileKey), e);
+            }
+            processed++;
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+
+        JourneyFactions.debugLog("Rendered {} territory tiles this tick ({} still pending)", processed, dirtyTiles.size());
+    }
+
+    private void renderTile(long tileKey, RegistryKey<World> dimension) {
+        ClientFactionManager manager = JourneyFactions.getFactionManager();
+        int baseX = ChunkBitmap.tileX(tileKey) << ChunkBitmap.TILE_SHIFT;
+        int baseZ = ChunkBitmap.tileZ(tileKey) << ChunkBitmap.TILE_SHIFT;
+        String overlayId = "raster_" + ChunkBitmap.tileX(tileKey) + "_" + ChunkBitmap.tileZ(tileKey);
+
+        // Discovered owner of every chunk in the tile
+        ClientFaction[] owners = new ClientFaction[PIXELS];
+        boolean[] any = {false};
+        manager.forEachClaimInArea(baseX, baseZ, baseX + TILE_MASK, baseZ + TILE_MASK, (x, z, faction) -> {
+            if (manager.isChunkDiscovered(x, z)) {
+                owners[((z - baseZ) << ChunkBitmap.TILE_SHIFT) | (x - baseX)] = faction;
+                any[0] = true;
+            }
+        });
+        if (!any[0]) {
+            reconciler.remove(overlayId);
+            setTileImage(tileKey, overlayId, null);
+            return;
+        }
+
+        // Faction colour, stronger where the owner changes so borders stay readable
+        int[] pixels = new int[PIXELS];
+        for (int z = 0; z < ChunkBitmap.TILE_SIZE; z++) {
+            for (int x = 0; x < ChunkBitmap.TILE_SIZE; x++) {
+                ClientFaction owner = owners[(z << ChunkBitmap.TILE_SHIFT) | x];
+                if (owner == null) {
+                    continue;
+                }
+                boolean border = ownerAt(manager, owners, baseX, baseZ, x + 1, z) != owner
+                    || ownerAt(manager, owners, baseX, baseZ, x - 1, z) != owner
+                    || ownerAt(manager, owners, baseX, baseZ, x, z + 1) != owner
+                    || ownerAt(manager, owners, baseX, baseZ, x, z - 1) != owner;
+                pixels[(z << ChunkBitmap.TILE_SHIFT) | x] = toAbgr(owner.getEffectiveColor(), border ? BORDER_ALPHA : FILL_ALPHA);
+            }
+        }
+
+        ChunkArea bounds = new ChunkArea(baseX, baseZ, baseX + TILE_MASK, baseZ + TILE_MASK);
+        // The reconciler compares these pixels and the dimension with the tile's current ones
+        reconciler.submit(overlayId, Arrays.asList(dimension, IntArrayList.wrap(pixels)), bounds, false, () -> {
+            NativeImage image = createTileImage(pixels);
+            setTileImage(tileKey, overlayId, image);
+            return createTileOverlay(overlayId, dimension, baseX, baseZ, image);
+        });
+    }
+
+    /**
+     * Make {@code image} (or nothing) the tile's current image; the previous one is closed
+     * once JourneyMap no longer uses it
+     */
+    private void setTileImage(long tileKey, String overlayId, NativeImage image) {
+        NativeImage previous = image != null ? images.put(tileKey, image) : images.remove(tileKey);
+        if (previous != null) {
+            retiredImages.add(new RetiredImage(overlayId, previous));
+        }
+    }
+
+    private void closeRetiredImages() {
+        Iterator<RetiredImage> iterator = retiredImages.iterator();
+        while (iterator.hasNext()) {
+            RetiredImage retired = iterator.next();
+            if (!reconciler.isPending(retired.overlayId)) {
+                retired.image.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Owner of a tile-local position; positions just outside the tile are looked up in the
+     * faction manager
+     */
+    private static ClientFaction ownerAt(ClientFactionManager manager, ClientFaction[] owners, int baseX, int baseZ, int x, int z) {
+        if (x >= 0 && x < ChunkBitmap.TILE_SIZE && z >= 0 && z < ChunkBitmap.TILE_SIZE) {
+            return owners[(z << ChunkBitmap.TILE_SHIFT) | x];
+        }
+        int chunkX = baseX + x;
+        int chunkZ = baseZ + z;
+        ClientFaction faction = manager.getFactionAt(chunkX, chunkZ);
+        if (faction == null || ClientFactionManager.WILDERNESS_ID.equals(faction.getId())
+                || !manager.isChunkDiscovered(chunkX, chunkZ)) {
+            return null;
+        }
+        return faction;
+    }
+
+    private static int toAbgr(Color color, int alpha) {
+        return (alpha << 24) | (color.getBlue() << 16) | (color.getGreen() << 8) | color.getRed();
+    }
+
+    private static NativeImage createTileImage(int[] pixels) {
+        NativeImage image = new NativeImage(NativeImage.Format.RGBA, ChunkBitmap.TILE_SIZE, ChunkBitmap.TILE_SIZE, false);
+        for (int i = 0; i < PIXELS; i++) {
+            image.setColor(i & TILE_MASK, i >>> ChunkBitmap.TILE_SHIFT, pixels[i]);
+        }
+        return image;
+    }
+
+    private static ImageOverlay createTileOverlay(String overlayId, RegistryKey<World> dimension, int baseX, int baseZ, NativeImage image) {
+        // Stretched over the whole 512x512-block region: one pixel per chunk
+        BlockPos northWest = new BlockPos(baseX << 4, TerritoryGeometry.LABEL_Y, baseZ << 4);
+        BlockPos southEast = new BlockPos((baseX + ChunkBitmap.TILE_SIZE) << 4, TerritoryGeometry.LABEL_Y, (baseZ + ChunkBitmap.TILE_SIZE) << 4);
+        ImageOverlay overlay = new ImageOverlay(JourneyFactions.MOD_ID, overlayId, northWest, southEast, new MapImage(image));
+        overlay.setDimension(dimension);
+        overlay.setActiveUIs(EnumSet.of(Context.UI.Any));
+        overlay.setActiveMapTypes(EnumSet.of(Context.MapType.Any));
+        overlay.setOverlayGroupName("faction_territories");
+        return overlay;
+    }
+}
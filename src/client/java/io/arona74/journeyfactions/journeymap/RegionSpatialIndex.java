@@ -0,0 +1,119 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkArea;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bounding boxes bucketed on the same 32x32-chunk grid as {@link ChunkBitmap} tiles. An entry is
+ * listed in every cell its box overlaps, so an area query only looks at entries near the area;
+ * each candidate's own box is then tested against the area.
+ */
+public class RegionSpatialIndex<T> {
+
+    private static final class Entry<T> {
+        final T value;
+        final ChunkArea bounds;
+
+        Entry(T value, ChunkArea bounds) {
+            this.value = value;
+            this.bounds = bounds;
+        }
+    }
+
+    private final Long2ObjectOpenHashMap<List<Entry<T>>> cells = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    public void insert(T value, ChunkArea bounds) {
+        Entry<T> entry = new Entry<>(value, bounds);
+        forEachCell(bounds, key -> cells.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry));
+        size++;
+    }
+
+    public void remove(T value, ChunkArea bounds) {
+        forEachCell(bounds, key -> {
+            List<Entry<T>> bucket = cells.get(key);
+            if (bucket != null) {
+                // Identity, not equals: two regions may have equal-looking state
+                for (int i = 0; i < bucket.size(); i++) {
+                    if (bucket.get(i).value == value) {
+                        bucket.remove(i);
+                        break;
+                    }
+                }
+                if (bucket.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        });
+        size--;
+    }
+
+    /**
+     * Visit each entry whose box intersects {@code area} exactly once
+     */
+    public void query(ChunkArea area, Consumer<T> visitor) {
+        Set<Entry<T>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        CellVisitor visitBucket = key -> {
+            List<Entry<T>> bucket = cells.get(key);
+            if (bucket != null) {
+                for (Entry<T> entry : bucket) {
+                    // Sharing a cell doesn't mean overlapping: test the box itself
+                    if (entry.bounds.intersects(area) && seen.add(entry)) {
+                        visitor.accept(entry.value);
+                    }
+                }
+            }
+        };
+
+        // A zoomed-out view can span more cells than are occupied; walk the occupied ones instead
+        int minX = area.getMinChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int minZ = area.getMinChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        int maxX = area.getMaxChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int maxZ = area.getMaxChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        long areaCells = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        if (areaCells > cells.size()) {
+            ChunkArea cellArea = new ChunkArea(minX, minZ, maxX, maxZ);
+            for (long key : cells.keySet().toLongArray()) {
+                if (cellArea.contains(ChunkPos.getPackedX(key), ChunkPos.getPackedZ(key))) {
+                    visitBucket.visit(key);
+                }
+            }
+        } else {
+            forEachCell(area, visitBucket);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    private static void forEachCell(ChunkArea area, CellVisitor visitor) {
+        int minX = area.getMinChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int minZ = area.getMinChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        int maxX = area.getMaxChunkX() >> ChunkBitmap.TILE_SHIFT;
+        int maxZ = area.getMaxChunkZ() >> ChunkBitmap.TILE_SHIFT;
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int x = minX; x <= maxX; x++) {
+                visitor.visit(ChunkPos.toLong(x, z));
+            }
+        }
+    }
+
+    private interface CellVisitor {
+        void visit(long cellKey);
+    }
+}
@@ -0,0 +1,362 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.config.JourneyFactionsConfig;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import journeymap.client.api.model.MapPolygonWithHoles;
+import journeymap.client.api.util.PolygonHelper;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.*;
+
+/**
+ * Pure territory geometry: polygons and label anchors for a snapshot of visible chunks.
+ * Holds no state and touches neither JourneyMap nor the faction manager, so it is safe to run
+ * on a background thread.
+ */
+public final class TerritoryGeometry {
+
+    static final int LABEL_Y = 70;
+
+    private TerritoryGeometry() {
+    }
+
+    /**
+     * Config values a build depends on, captured on the client thread
+     */
+    public static final class Settings {
+        private final JourneyFactionsConfig.PolygonBuilder polygonBuilder;
+        private final boolean computeLabels;
+        private final JourneyFactionsConfig.LabelAnchorMode anchorMode;
+
+        public Settings(JourneyFactionsConfig.PolygonBuilder polygonBuilder, boolean computeLabels,
+                        JourneyFactionsConfig.LabelAnchorMode anchorMode) {
+            this.polygonBuilder = polygonBuilder;
+            this.computeLabels = computeLabels;
+            this.anchorMode = anchorMode;
+        }
+
+        public static Settings fromConfig() {
+            return new Settings(
+                JourneyFactions.CONFIG.polygonBuilder,
+                JourneyFactions.CONFIG.separateLabelOverlay,
+                JourneyFactions.CONFIG.labelAnchorMode
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Settings)) return false;
+            Settings other = (Settings) o;
+            return polygonBuilder == other.polygonBuilder
+                && computeLabels == other.computeLabels
+                && anchorMode == other.anchorMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(polygonBuilder, computeLabels, anchorMode);
+        }
+    }
+
+    /**
+     * A faction's full region list for one detail tier, largest first, and how many of those
+     * regions were rebuilt
+     */
+    public static final class Result {
+        private final TerritoryLod lod;
+        private final List<TerritoryRegion> regions;
+        private final int rebuiltCount;
+
+        Result(TerritoryLod lod, List<TerritoryRegion> regions, int rebuiltCount) {
+            this.lod = lod;
+            this.regions = regions;
+            this.rebuiltCount = rebuiltCount;
+        }
+
+        public TerritoryLod getLod() { return lod; }
+        public List<TerritoryRegion> getRegions() { return regions; }
+        public int getRebuiltCount() { return rebuiltCount; }
+    }
+
+    /**
+     * Build every region from scratch
+     */
+    public static Result build(ChunkBitmap visibleChunks, Settings settings) {
+        return build(visibleChunks, TerritoryLod.FULL, null, null, settings);
+    }
+
+    /**
+     * Rebuild only the regions around {@code touchedCells} (cells whose visibility changed since
+     * {@code previous} was built) and reuse the other regions of {@code previous} as-is.
+     * {@code cells} is the tier's whole cell bitmap: the visible chunks themselves at full
+     * detail, otherwise the coarse cells the caller keeps current as claims change.
+     *
+     * A region can only change if it contains a touched cell or borders one: merges need an
+     * added cell next to both regions, splits and new holes need a removed cell inside the
+     * region, and every piece left behind by a removal still borders the removed cell. So
+     * re-labelling the cells reachable from the touched cells and their 4-neighbours yields
+     * exactly the replacements for the affected regions.
+     *
+     * With {@code previous == null} this is a full build.
+     */
+    public static Result build(ChunkBitmap cells, TerritoryLod lod, Result previous, ChunkBitmap touchedCells, Settings settings) {
+        try {
+            List<TerritoryRegion> regions = new ArrayList<>();
+            ChunkBitmap visited = new ChunkBitmap();
+            List<Component> components;
+
+            if (previous == null) {
+                components = findConnectedRegions(cells, cells, visited);
+            } else {
+                // Touched cells plus their 4-neighbours, and their bounding box
+                ChunkBitmap zone = new ChunkBitmap();
+                int[] zoneBounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+                touchedCells.forEach((x, z) -> {
+                    zone.add(x, z);
+                    zone.add(x + 1, z);
+                    zone.add(x - 1, z);
+                    zone.add(x, z + 1);
+                    zone.add(x, z - 1);
+                    zoneBounds[0] = Math.min(zoneBounds[0], x - 1);
+                    zoneBounds[1] = Math.min(zoneBounds[1], z - 1);
+                    zoneBounds[2] = Math.max(zoneBounds[2], x + 1);
+                    zoneBounds[3] = Math.max(zoneBounds[3], z + 1);
+                });
+
+                for (TerritoryRegion region : previous.regions) {
+                    if (!intersects(region, zone, zoneBounds)) {
+                        regions.add(region);
+                    }
+                }
+                components = findConnectedRegions(cells, zone, visited);
+            }
+
+            JourneyFactions.debugLog("Found {} connected regions to build ({} reused)", components.size(), regions.size());
+            if (settings.computeLabels) {
+                JourneyFactions.debugLog("Computing label anchors using mode: {}", settings.anchorMode);
+            }
+
+            for (Component component : components) {
+                // Build polygons with holes preserved
+                List<MapPolygonWithHoles> polygons = buildRegionPolygons(component.chunks, lod, settings.polygonBuilder);
+                BlockPos anchor = settings.computeLabels && !polygons.isEmpty()
+                    ? computeLabelAnchor(component, settings.anchorMode, lod.getBlockShift())
+                    : null;
+                regions.add(new TerritoryRegion(lod, component.chunks, component.bounds,
+                    component.anchorX, component.anchorZ, polygons, anchor));
+            }
+
+            // Largest first; the sort is stable so reused regions keep their relative order
+            regions.sort((a, b) -> Integer.compare(b.size(), a.size()));
+            return new Result(lod, regions, components.size());
+        } catch (Exception e) {
+            // No polygons at all if something fatal happens
+            JourneyFactions.LOGGER.error("Error building territory polygons", e);
+            return new Result(lod, Collections.emptyList(), 0);
+        }
+    }
+
+    private static boolean intersects(TerritoryRegion region, ChunkBitmap zone, int[] zoneBounds) {
+        return region.boundsIntersect(zoneBounds[0], zoneBounds[1], zoneBounds[2], zoneBounds[3])
+            && region.getChunks().intersects(zone);
+    }
+
+    /**
+     * @param blockShift log2 of the region's cell width in blocks (4 for chunks)
+     */
+    private static BlockPos computeLabelAnchor(Component region, JourneyFactionsConfig.LabelAnchorMode anchorMode, int blockShift) {
+        switch (anchorMode) {
+            case HULL_CENTROID:
+                return computeHullCentroid(region.bounds, blockShift);
+            case FIRST_CHUNK_CENTER:
+                return cellCenter(region.anchorX, region.anchorZ, blockShift);
+            case FARTHEST_INTERIOR_CHUNK:
+            default:
+                return computeInteriorLabelAnchor(region.chunks, blockShift);
+        }
+    }
+
+    private static BlockPos cellCenter(int cellX, int cellZ, int blockShift) {
+        int half = 1 << (blockShift - 1);
+        return new BlockPos((cellX << blockShift) + half, LABEL_Y, (cellZ << blockShift) + half);
+    }
+
+    private static BlockPos computeInteriorLabelAnchor(ChunkBitmap bits, int blockShift) {
+        if (bits.isEmpty()) return null;
+
+        // Edge detection a row of 32 chunks at a time: any missing 4-neighbor => edge
+        ChunkBitmap edges = bits.edgeChunks();
+
+        long[] queue = new long[bits.size()];
+        int tail = 0;
+        Long2IntOpenHashMap dist = new Long2IntOpenHashMap(bits.size());
+        for (ChunkPos c : edges.asSet()) {
+            long key = c.toLong();
+            dist.put(key, 0);
+            queue[tail++] = key;
+        }
+        // Single chunk or fully solid region with no detected edge: just use it
+        if (dist.isEmpty()) {
+            ChunkPos any = bits.asSet().iterator().next();
+            return cellCenter(any.x, any.z, blockShift);
+        }
+
+        // BFS into the interior; the last chunk dequeued is the farthest from the perimeter
+        int head = 0;
+        long best = queue[0];
+        while (head < tail) {
+            long cur = queue[head++];
+            best = cur;
+            int x = ChunkPos.getPackedX(cur);
+            int z = ChunkPos.getPackedZ(cur);
+            int d = dist.get(cur);
+            tail = visitInterior(bits, dist, queue, tail, x + 1, z, d + 1);
+            tail = visitInterior(bits, dist, queue, tail, x - 1, z, d + 1);
+            tail = visitInterior(bits, dist, queue, tail, x, z + 1, d + 1);
+            tail = visitInterior(bits, dist, queue, tail, x, z - 1, d + 1);
+        }
+
+        // Choose the chunk with max distance from the perimeter (keeps out of holes)
+        return cellCenter(ChunkPos.getPackedX(best), ChunkPos.getPackedZ(best), blockShift);
+    }
+
+    private static int visitInterior(ChunkBitmap region, Long2IntOpenHashMap dist, long[] queue, int tail, int x, int z, int d) {
+        long key = ChunkPos.toLong(x, z);
+        if (region.contains(x, z) && !dist.containsKey(key)) {
+            dist.put(key, d);
+            queue[tail++] = key;
+        }
+        return tail;
+    }
+
+    /**
+     * @param bounds minX, minZ, maxX, maxZ in cells
+     */
+    private static BlockPos computeHullCentroid(int[] bounds, int blockShift) {
+        int minCellX = bounds[0];
+        int minCellZ = bounds[1];
+        int maxCellX = bounds[2];
+        int maxCellZ = bounds[3];
+
+        // Convert cells to block coords for edges
+        int minBlockX = minCellX << blockShift;
+        int maxBlockX = ((maxCellX + 1) << blockShift) - 1; // last block in cell
+        int minBlockZ = minCellZ << blockShift;
+        int maxBlockZ = ((maxCellZ + 1) << blockShift) - 1;
+
+        // Perfect geometric center
+        int centerX = (minBlockX + maxBlockX) / 2;
+        int centerZ = (minBlockZ + maxBlockZ) / 2;
+
+        return new BlockPos(centerX, LABEL_Y, centerZ);
+    }
+
+    /**
+     * Polygons for one connected region with the configured builder, preserving holes. The
+     * in-house tracer also backs up JourneyMap's PolygonHelper when that returns nothing, and
+     * handles coarse tiers on its own since PolygonHelper only understands chunks.
+     */
+    private static List<MapPolygonWithHoles> buildRegionPolygons(ChunkBitmap region, TerritoryLod lod, JourneyFactionsConfig.PolygonBuilder polygonBuilder) {
+        if (lod != TerritoryLod.FULL) {
+            return ChunkContourTracer.trace(region, LABEL_Y, lod.getBlockShift());
+        }
+        if (polygonBuilder == JourneyFactionsConfig.PolygonBuilder.JOURNEYMAP_HELPER) {
+            List<MapPolygonWithHoles> polysWithHoles = createHelperPolygons(region.asSet());
+            if (polysWithHoles != null && !polysWithHoles.isEmpty()) {
+                return polysWithHoles; // ✅ Keep holes
+            }
+            JourneyFactions.debugLog("PolygonHelper produced nothing for a {} chunk region, tracing it instead", region.size());
+        }
+        return ChunkContourTracer.trace(region, LABEL_Y);
+    }
+
+    private static List<MapPolygonWithHoles> createHelperPolygons(Set<ChunkPos> region) {
+        try {
+            // Let JourneyMap do the heavy lifting
+            return PolygonHelper.createChunksPolygon(region, LABEL_Y);
+        } catch (Exception e) {
+            JourneyFactions.debugLog("PolygonHelper failed: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 4-connected components of {@code chunks} that contain at least one seed, labelled with an
+     * iterative BFS over packed chunk keys. Each chunk is enqueued once; {@code visited} is
+     * shared so a component reached from several seeds is only built once.
+     */
+    private static List<Component> findConnectedRegions(ChunkBitmap chunks, ChunkBitmap seeds, ChunkBitmap visited) {
+        List<Component> regions = new ArrayList<>();
+        long[][] queue = {new long[64]};
+
+        seeds.forEach((seedX, seedZ) -> {
+            if (!chunks.contains(seedX, seedZ) || !visited.add(seedX, seedZ)) {
+                return; // not visible, or already part of an earlier region
+            }
+            Component region = new Component(seedX, seedZ);
+            queue[0][0] = ChunkPos.toLong(seedX, seedZ);
+            int head = 0;
+            int tail = 1;
+
+            while (head < tail) {
+                long cur = queue[0][head++];
+                int x = ChunkPos.getPackedX(cur);
+                int z = ChunkPos.getPackedZ(cur);
+                if (queue[0].length - tail < 4) {
+                    queue[0] = Arrays.copyOf(queue[0], queue[0].length * 2);
+                }
+                tail = claimNeighbor(chunks, visited, region, queue[0], tail, x + 1, z); // East
+                tail = claimNeighbor(chunks, visited, region, queue[0], tail, x - 1, z); // West
+                tail = claimNeighbor(chunks, visited, region, queue[0], tail, x, z + 1); // South
+                tail = claimNeighbor(chunks, visited, region, queue[0], tail, x, z - 1); // North
+            }
+            region.chunks.freeze();
+            regions.add(region);
+        });
+
+        return regions;
+    }
+
+    private static int claimNeighbor(ChunkBitmap chunks, ChunkBitmap visited, Component region, long[] queue, int tail, int x, int z) {
+        if (chunks.contains(x, z) && visited.add(x, z)) {
+            region.add(x, z);
+            queue[tail++] = ChunkPos.toLong(x, z);
+        }
+        return tail;
+    }
+
+    /**
+     * A labelled region before its geometry is built
+     */
+    private static final class Component {
+        final ChunkBitmap chunks = new ChunkBitmap();
+        // minX, minZ, maxX, maxZ
+        final int[] bounds;
+        // First chunk in row order, used as the region's identity
+        int anchorX;
+        int anchorZ;
+
+        Component(int x, int z) {
+            this.bounds = new int[] {x, z, x, z};
+            this.anchorX = x;
+            this.anchorZ = z;
+            chunks.add(x, z);
+        }
+
+        void add(int x, int z) {
+            chunks.add(x, z);
+            if (x < bounds[0]) bounds[0] = x;
+            if (z < bounds[1]) bounds[1] = z;
+            if (x > bounds[2]) bounds[2] = x;
+            if (z > bounds[3]) bounds[3] = z;
+            if (z < anchorZ || (z == anchorZ && x < anchorX)) {
+                anchorX = x;
+                anchorZ = z;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import journeymap.client.api.model.MapPolygon;
+import journeymap.client.api.model.MapPolygonWithHoles;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Finished geometry keyed by faction, detail tier, geometry settings (builder, label anchor mode)
+ * and a fingerprint of the tier's visible cells. Mapping restarts, dimension hops, display
+ * toggles and full resyncs from the server throw the overlays away but usually come back to
+ * the exact same claims, which then cost a lookup instead of a rebuild. Only a new session
+ * empties it.
+ *
+ * Least recently used entries are evicted once the estimated size passes the cap. Shared by
+ * the geometry workers, so every method is synchronized.
+ */
+public class TerritoryGeometryCache {
+
+    // Rough per-object costs for the size estimate (64-bit JVM, compressed oops)
+    private static final int ENTRY_BYTES = 96;
+    private static final int REGION_BYTES = 128;
+    private static final int TILE_BYTES = ChunkBitmap.WORDS_PER_TILE * Long.BYTES + 64;
+    private static final int POINT_BYTES = 32;
+
+    /**
+     * Everything a build's output depends on. The fingerprint only picks the bucket; a hit
+     * also compares the cells themselves, so a fingerprint collision can never hand back
+     * another territory's geometry. The cells are the frozen snapshot the build ran on, kept
+     * as-is rather than copied.
+     */
+    public static final class Key {
+        private final String factionId;
+        private final TerritoryLod lod;
+        private final TerritoryGeometry.Settings settings;
+        private final ChunkBitmap cells;
+        private final long fingerprint;
+
+        public Key(String factionId, TerritoryLod lod, TerritoryGeometry.Settings settings, ChunkBitmap cells) {
+            this.factionId = factionId;
+            this.lod = lod;
+            this.settings = settings;
+            this.cells = cells;
+            this.fingerprint = cells.fingerprint();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return fingerprint == other.fingerprint
+                && lod == other.lod
+                && factionId.equals(other.factionId)
+                && settings.equals(other.settings)
+                && cells.equals(other.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(factionId, lod, settings, fingerprint);
+        }
+    }
+
+    private static final class Entry {
+        final TerritoryGeometry.Result result;
+        final long bytes;
+
+        Entry(TerritoryGeometry.Result result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    // Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public synchronized TerritoryGeometry.Result get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Store a result, then evict least recently used entries until the cache fits
+     * {@code capBytes}. A cap of 0 disables caching.
+     */
+    public synchronized void put(Key key, TerritoryGeometry.Result result, long capBytes) {
+        long bytes = estimateBytes(key, result);
+        if (bytes > capBytes) {
+            return; // would evict everything and still not fit
+        }
+        Entry previous = entries.put(key, new Entry(result, bytes));
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > capBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.bytes;
+            evictions++;
+        }
+    }
+
+    /**
+     * Drop everything belonging to one faction
+     */
+    public synchronized void invalidate(String factionId) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().factionId.equals(factionId)) {
+                totalBytes -= entry.getValue().bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+        JourneyFactions.debugLog("Territory geometry cache cleared");
+    }
+
+    private static long estimateBytes(Key key, TerritoryGeometry.Result result) {
+        // Counted in full: once the claims move on, the key may be the last holder of its tiles
+        long bytes = ENTRY_BYTES + (long) key.cells.getTileCount() * TILE_BYTES;
+        for (TerritoryRegion region : result.getRegions()) {
+            bytes += REGION_BYTES + (long) region.getChunks().getTileCount() * TILE_BYTES;
+            for (MapPolygonWithHoles polygon : region.getPolygons()) {
+                bytes += (long) polygon.hull.getPoints().size() * POINT_BYTES;
+                for (MapPolygon hole : polygon.holes) {
+                    bytes += (long) hole.getPoints().size() * POINT_BYTES;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getEstimatedBytes() { return totalBytes; }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+}
@@ -0,0 +1,140 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.JourneyFactions;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import net.minecraft.client.MinecraftClient;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes territory geometry on a small bounded worker pool and hands results back on the
+ * client thread. Every submission gets a new version number; a result is only applied if no
+ * newer snapshot of the same faction was submitted (or cancelled) in the meantime. Finished
+ * geometry goes into a {@link TerritoryGeometryCache} that outlives the overlays themselves.
+ */
+public class TerritoryGeometryPipeline {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Receives finished geometry on the client thread
+     */
+    public interface ResultHandler {
+        void apply(String factionId, TerritoryGeometry.Result result);
+    }
+
+    private final ResultHandler handler;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Long> latestVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final TerritoryGeometryCache cache = new TerritoryGeometryCache();
+
+    public TerritoryGeometryPipeline(ResultHandler handler) {
+        this.handler = handler;
+
+        int threads = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            threads, threads,
+            30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+                Thread thread = new Thread(runnable, "JourneyFactions-Geometry-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            },
+            // Queue full: degrade to computing on the submitting thread rather than dropping work
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a rebuild of the tier's cells (the visible chunks at full detail). {@code previous}
+     * and {@code touchedCells} select an incremental rebuild (see {@link TerritoryGeometry#build(ChunkBitmap, TerritoryLod, TerritoryGeometry.Result, ChunkBitmap, TerritoryGeometry.Settings)});
+     * pass null for both to rebuild everything. Bitmaps must be frozen snapshots.
+     */
+    public void submit(String factionId, ChunkBitmap cells, TerritoryLod lod,
+                       TerritoryGeometry.Result previous, ChunkBitmap touchedCells) {
+        long version = versionCounter.incrementAndGet();
+        latestVersions.put(factionId, version);
+        JourneyFactions.debugLog("Queued geometry for faction {} ({} factions in flight)", factionId, latestVersions.size());
+
+        // Capture config on the client thread so a worker never sees a half-applied change
+        TerritoryGeometry.Settings settings = TerritoryGeometry.Settings.fromConfig();
+        long cacheCapBytes = JourneyFactions.CONFIG.geometryCacheMegabytes * 1024L * 1024L;
+
+        if (!JourneyFactions.CONFIG.asyncGeometry) {
+            TerritoryGeometry.Result result = build(factionId, cells, lod, previous, touchedCells, settings, cacheCapBytes);
+            complete(factionId, version, result);
+            return;
+        }
+
+        executor.execute(() -> {
+            if (!isCurrent(factionId, version)) {
+                return; // superseded before we even started
+            }
+            try {
+                TerritoryGeometry.Result result = build(factionId, cells, lod, previous, touchedCells, settings, cacheCapBytes);
+                MinecraftClient.getInstance().execute(() -> complete(factionId, version, result));
+            } catch (Exception e) {
+                JourneyFactions.LOGGER.error("Error computing geometry for faction {}", factionId, e);
+            }
+        });
+    }
+
+    private TerritoryGeometry.Result build(String factionId, ChunkBitmap cells, TerritoryLod lod,
+                                           TerritoryGeometry.Result previous, ChunkBitmap touchedCells,
+                                           TerritoryGeometry.Settings settings, long cacheCapBytes) {
+        TerritoryGeometryCache.Key key = null;
+        if (cacheCapBytes > 0) {
+            key = new TerritoryGeometryCache.Key(factionId, lod, settings, cells);
+            TerritoryGeometry.Result cached = cache.get(key);
+            if (cached != null) {
+                JourneyFactions.debugLog("Geometry cache hit for faction {} ({})", factionId, lod);
+                return cached;
+            }
+        }
+
+        TerritoryGeometry.Result result = TerritoryGeometry.build(cells, lod, previous, touchedCells, settings);
+        if (key != null) {
+            cache.put(key, result, cacheCapBytes);
+        }
+        return result;
+    }
+
+    private void complete(String factionId, long version, TerritoryGeometry.Result result) {
+        if (!latestVersions.remove(factionId, version)) {
+            JourneyFactions.debugLog("Discarding stale geometry for faction {} (version {})", factionId, version);
+            return;
+        }
+        handler.apply(factionId, result);
+    }
+
+    private boolean isCurrent(String factionId, long version) {
+        Long latest = latestVersions.get(factionId);
+        return latest != null && latest == version;
+    }
+
+    /**
+     * Drop any in-flight result for the faction
+     */
+    public void cancel(String factionId) {
+        latestVersions.remove(factionId);
+    }
+
+    public void cancelAll() {
+        latestVersions.clear();
+    }
+
+    public TerritoryGeometryCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,49 @@
+package io.arona74.journeyfactions.journeymap;
+
+/**
+ * Level-of-detail tiers for territory geometry. Coarser tiers draw a faction on a grid of square
+ * cells several chunks wide, a cell counting as claimed if any visible chunk inside it is, so a
+ * zoomed-out map gets a few vertices per territory instead of one per chunk corner and small
+ * outposts never vanish.
+ */
+public enum TerritoryLod {
+    FULL(0),
+    MEDIUM(2), // 4x4 chunks per cell
+    FAR(4);    // 16x16 chunks per cell
+
+    private final int cellShift;
+
+    TerritoryLod(int cellShift) {
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * log2 of the cell width in chunks
+     */
+    public int getCellShift() {
+        return cellShift;
+    }
+
+    /**
+     * log2 of the cell width in blocks
+     */
+    public int getBlockShift() {
+        return cellShift + 4;
+    }
+
+    /**
+     * Finest tier whose cells are still at least {@code minCellPixels} wide on screen, given
+     * JourneyMap's current size of a block in pixels. Unknown sizes get full detail.
+     */
+    public static TerritoryLod forBlockSize(double blockSize, int minCellPixels) {
+        if (blockSize <= 0) {
+            return FULL;
+        }
+        for (TerritoryLod lod : values()) {
+            if (blockSize * (1 << lod.getBlockShift()) >= minCellPixels) {
+                return lod;
+            }
+        }
+        return FAR;
+    }
+}
@@ -0,0 +1,82 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import journeymap.client.api.model.MapPolygonWithHoles;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * One 4-connected piece of a faction's visible territory together with its finished geometry.
+ * Immutable; incremental rebuilds hand unaffected regions over as the same instance, so
+ * identity tells the overlay manager which regions it can leave alone.
+ *
+ * Coordinates are cells of the region's {@link TerritoryLod} (plain chunks at full detail),
+ * including {@link #getChunks()}, except for the chunk bounds getters, which always answer in
+ * chunks.
+ */
+public final class TerritoryRegion {
+    private final TerritoryLod lod;
+    private final ChunkBitmap chunks;
+    private final int minCellX;
+    private final int minCellZ;
+    private final int maxCellX;
+    private final int maxCellZ;
+    private final int anchorCellX;
+    private final int anchorCellZ;
+    private final List<MapPolygonWithHoles> polygons;
+    private final BlockPos labelAnchor;
+
+    TerritoryRegion(TerritoryLod lod, ChunkBitmap chunks, int[] bounds, int anchorCellX, int anchorCellZ,
+                    List<MapPolygonWithHoles> polygons, BlockPos labelAnchor) {
+        this.lod = lod;
+        this.chunks = chunks;
+        this.minCellX = bounds[0];
+        this.minCellZ = bounds[1];
+        this.maxCellX = bounds[2];
+        this.maxCellZ = bounds[3];
+        this.anchorCellX = anchorCellX;
+        this.anchorCellZ = anchorCellZ;
+        this.polygons = polygons;
+        this.labelAnchor = labelAnchor;
+    }
+
+    /**
+     * Overlay ID suffix derived from the region's first cell in row order (lowest z, then
+     * lowest x). Unique within a faction and tier because regions never share cells; coarse
+     * tiers are prefixed so their IDs never collide with full-detail ones.
+     */
+    public String getKey() {
+        String key = anchorCellX + "_" + anchorCellZ;
+        return lod == TerritoryLod.FULL ? key : "lod" + lod.getCellShift() + "_" + key;
+    }
+
+    public TerritoryLod getLod() { return lod; }
+    public ChunkBitmap getChunks() { return chunks; }
+    public int size() { return chunks.size(); }
+    public List<MapPolygonWithHoles> getPolygons() { return polygons; }
+    public BlockPos getLabelAnchor() { return labelAnchor; }
+
+    public int getMinChunkX() { return minCellX << lod.getCellShift(); }
+    public int getMinChunkZ() { return minCellZ << lod.getCellShift(); }
+    public int getMaxChunkX() { return ((maxCellX + 1) << lod.getCellShift()) - 1; }
+    public int getMaxChunkZ() { return ((maxCellZ + 1) << lod.getCellShift()) - 1; }
+
+    /**
+     * Cell coordinates, see the class comment
+     */
+    public boolean boundsContain(int cellX, int cellZ) {
+        return cellX >= minCellX && cellX <= maxCellX && cellZ >= minCellZ && cellZ <= maxCellZ;
+    }
+
+    /**
+     * Cell coordinates, inclusive on both ends
+     */
+    public boolean boundsIntersect(int minX, int minZ, int maxX, int maxZ) {
+        return minX <= maxCellX && maxX >= minCellX && minZ <= maxCellZ && maxZ >= minCellZ;
+    }
+
+    public boolean contains(int cellX, int cellZ) {
+        return boundsContain(cellX, cellZ) && chunks.contains(cellX, cellZ);
+    }
+}
@@ -2,6 +2,8 @@ package io.arona74.journeyfactions.network;
 
 import io.arona74.journeyfactions.JourneyFactions;
 import io.arona74.journeyfactions.data.ClientFaction;
+import io.arona74.journeyfactions.data.ClientFactionManager;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
@@ -26,6 +28,9 @@ public class ClientNetworkHandler {
     public static final Identifier FACTION_DELETE = new Identifier("factions", "faction_delete");
     public static final Identifier CLIENT_REQUEST_DATA = new Identifier("factions", "client_request_data");
 
+    // Claim/unclaim packets handled during one tick share a batch that is committed at the end of the tick
+    private static boolean claimBatchOpen = false;
+
     public static void initialize() {
         JourneyFactions.debugLog("Initializing client network handlers...");
         
@@ -34,6 +39,9 @@ public class ClientNetworkHandler {
         
         // Register connection events
         registerConnectionEvents();
+
+        // Flush claim changes batched during the tick
+        ClientTickEvents.END_CLIENT_TICK.register(client -> commitClaimBatch());
         
         JourneyFactions.debugLog("Client network handler initialized successfully");
     }
@@ -52,20 +60,23 @@ public class ClientNetworkHandler {
                     ClientFaction faction = readFactionFromBuffer(buf);
                     if (faction != null) {
                         factions.add(faction);
-                        JourneyFactions.debugLog("Received faction: {} with {} chunks",faction.getName(), faction.getClaimedChunks().size());
+                        JourneyFactions.debugLog("Received faction: {} with {} chunks",faction.getName(), faction.getClaimedChunkCount());
                     }
                 }
                 
                 // Process on main thread
                 client.execute(() -> {
                     try {
-                        // Clear existing data
-                        JourneyFactions.getFactionManager().clear();
-                        
-                        // Add all received factions
-                        for (ClientFaction faction : factions) {
-                            JourneyFactions.getFactionManager().addOrUpdateFaction(faction);
-                        }
+                        // Apply the whole sync as one batch: one update event per faction
+                        JourneyFactions.getFactionManager().applyBatch(manager -> {
+                            // Clear existing data
+                            manager.clear();
+
+                            // Add all received factions
+                            for (ClientFaction faction : factions) {
+                                manager.addOrUpdateFaction(faction);
+                            }
+                        });
                         
                         JourneyFactions.debugLog("Successfully processed {} factions from server", factions.size());
                         
@@ -106,7 +117,7 @@ public class ClientNetworkHandler {
                 JourneyFactions.debugLog("Received chunk claim: {} by faction {}", chunk, factionId);
                 
                 client.execute(() -> {
-                    JourneyFactions.getFactionManager().setChunkOwner(chunk, factionId);
+                    openClaimBatch().setChunkOwner(chunk, factionId);
                 });
                 
             } catch (Exception e) {
@@ -125,7 +136,7 @@ public class ClientNetworkHandler {
                 
                 client.execute(() -> {
                     // Set to wilderness (null means wilderness)
-                    JourneyFactions.getFactionManager().setChunkOwner(chunk, null);
+                    openClaimBatch().setChunkOwner(chunk, null);
                 });
                 
             } catch (Exception e) {
@@ -177,6 +188,22 @@ public class ClientNetworkHandler {
         JourneyFactions.debugLog("Registered connection event handlers");
     }
 
+    private static ClientFactionManager openClaimBatch() {
+        ClientFactionManager manager = JourneyFactions.getFactionManager();
+        if (!claimBatchOpen) {
+            manager.beginBatch();
+            claimBatchOpen = true;
+        }
+        return manager;
+    }
+
+    private static void commitClaimBatch() {
+        if (claimBatchOpen) {
+            claimBatchOpen = false;
+            JourneyFactions.getFactionManager().commitBatch();
+        }
+    }
+
     /**
      * Request faction data from server
      */
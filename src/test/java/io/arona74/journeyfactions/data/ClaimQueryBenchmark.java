@@ -0,0 +1,113 @@
+package io.arona74.journeyfactions.data;
+
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Area query latency against the world's claim count: the tile-indexed queries next to the
+ * scan over every faction's claims they replace. Factions are blobs of up to 500 chunks
+ * covering about a quarter of a square world; queries are a map screen (64x64 chunks) and a
+ * zoomed-out view (512x512 chunks) inside it.
+ */
+@Tag("benchmark")
+class ClaimQueryBenchmark {
+
+    private static final int CHUNKS_PER_FACTION = 500;
+    private static final int QUERIES = 2000;
+
+    @Test
+    void areaQueries() {
+        System.out.println("claims     view  forEachClaimInArea  getFactionsIntersecting  full scan (us/query)");
+        for (int claims : new int[] {10_000, 100_000, 1_000_000}) {
+            ClientFactionManager manager = populate(claims, new Random(claims));
+            int claimed = 0;
+            for (ClientFaction faction : manager.getAllFactions()) {
+                claimed += faction.getClaimBitmap().size();
+            }
+            int worldSize = (int) Math.sqrt(claims * 4.0);
+            for (int view : new int[] {64, 512}) {
+                ChunkArea[] areas = new ChunkArea[QUERIES];
+                Random random = new Random(view);
+                for (int i = 0; i < QUERIES; i++) {
+                    int x = random.nextInt(Math.max(1, worldSize - view));
+                    int z = random.nextInt(Math.max(1, worldSize - view));
+                    areas[i] = new ChunkArea(x, z, x + view - 1, z + view - 1);
+                }
+                double visit = time(areas, area -> {
+                    int[] found = {0};
+                    manager.forEachClaimInArea(area.getMinChunkX(), area.getMinChunkZ(),
+                        area.getMaxChunkX(), area.getMaxChunkZ(), (x, z, faction) -> found[0]++);
+                    return found[0];
+                });
+                double intersecting = time(areas, area -> manager.getFactionsIntersecting(area).size());
+                double scan = time(areas, area -> scanAllClaims(manager, area));
+                System.out.printf("%9d  %4d  %18.1f  %23.1f  %9.1f%n", claimed, view, visit, intersecting, scan);
+            }
+        }
+    }
+
+    private static ClientFactionManager populate(int claims, Random random) {
+        ClientFactionManager manager = new ClientFactionManager();
+        int worldSize = (int) Math.sqrt(claims * 4.0);
+        int side = (int) Math.sqrt(CHUNKS_PER_FACTION);
+        Set<ChunkPos> taken = new HashSet<>();
+        for (int f = 0; f < claims / CHUNKS_PER_FACTION; f++) {
+            int originX = random.nextInt(worldSize - side);
+            int originZ = random.nextInt(worldSize - side);
+            Set<ChunkPos> chunks = new HashSet<>();
+            for (int x = 0; x < side; x++) {
+                for (int z = 0; z < side; z++) {
+                    ChunkPos chunk = new ChunkPos(originX + x, originZ + z);
+                    if (taken.add(chunk)) {
+                        chunks.add(chunk); // as on a server, no chunk has two owners
+                    }
+                }
+            }
+            manager.addOrUpdateFaction(ClientFactionManagerTest.faction("f" + f, chunks));
+        }
+        return manager;
+    }
+
+    // What callers had to do before the tile index: look at every claimed chunk in the world
+    private static int scanAllClaims(ClientFactionManager manager, ChunkArea area) {
+        int found = 0;
+        for (ClientFaction faction : manager.getAllFactions()) {
+            for (ChunkPos chunk : faction.getClaimedChunksView()) {
+                if (area.contains(chunk.x, chunk.z)) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    private interface Query {
+        int run(ChunkArea area);
+    }
+
+    private static double time(ChunkArea[] areas, Query query) {
+        int sink = 0;
+        // Warm up, then measure
+        for (int i = 0; i < areas.length / 4; i++) {
+            sink += query.run(areas[i]);
+        }
+        long start = System.nanoTime();
+        int runs = 0;
+        for (ChunkArea area : areas) {
+            sink += query.run(area);
+            runs++;
+            if (System.nanoTime() - start > 2_000_000_000L) {
+                break; // the full scan at 1M claims would take minutes
+            }
+        }
+        if (sink == Integer.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return (System.nanoTime() - start) / 1000.0 / runs;
+    }
+}
@@ -0,0 +1,71 @@
+package io.arona74.journeyfactions.data;
+
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientFactionManagerTest {
+
+    @Test
+    void areaQueriesMatchBruteForce() {
+        Random random = new Random(1);
+        ClientFactionManager manager = new ClientFactionManager();
+        Map<ChunkPos, String> owners = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            String id = "f" + i;
+            Set<ChunkPos> claims = new HashSet<>();
+            int centerX = random.nextInt(200) - 100;
+            int centerZ = random.nextInt(200) - 100;
+            for (int c = 0; c < 400; c++) {
+                claims.add(new ChunkPos(centerX + random.nextInt(40), centerZ + random.nextInt(40)));
+            }
+            // Later syncs take overlapping chunks, leaving them in the earlier faction's bitmap
+            manager.addOrUpdateFaction(faction(id, claims));
+            claims.forEach(chunk -> owners.put(chunk, id));
+        }
+        for (int i = 0; i < 2000; i++) {
+            ChunkPos chunk = new ChunkPos(random.nextInt(240) - 120, random.nextInt(240) - 120);
+            String id = random.nextInt(4) == 0 ? null : "f" + random.nextInt(12);
+            manager.setChunkOwner(chunk, id);
+            if (id == null) {
+                owners.remove(chunk);
+            } else {
+                owners.put(chunk, id);
+            }
+        }
+
+        for (int q = 0; q < 300; q++) {
+            int minX = random.nextInt(300) - 150;
+            int minZ = random.nextInt(300) - 150;
+            ChunkArea area = new ChunkArea(minX, minZ, minX + random.nextInt(100), minZ + random.nextInt(100));
+
+            Map<ChunkPos, String> expected = new HashMap<>();
+            owners.forEach((chunk, id) -> {
+                if (area.contains(chunk.x, chunk.z)) {
+                    expected.put(chunk, id);
+                }
+            });
+            Map<ChunkPos, String> found = new HashMap<>();
+            manager.forEachClaimInArea(area.getMinChunkX(), area.getMinChunkZ(), area.getMaxChunkX(), area.getMaxChunkZ(),
+                (x, z, faction) -> found.put(new ChunkPos(x, z), faction.getId()));
+            assertEquals(expected, found, "claims in " + area);
+
+            Set<String> intersecting = new HashSet<>();
+            manager.getFactionsIntersecting(area).forEach(faction -> intersecting.add(faction.getId()));
+            assertEquals(new HashSet<>(expected.values()), intersecting, "factions in " + area);
+        }
+    }
+
+    static ClientFaction faction(String id, Set<ChunkPos> claims) {
+        ClientFaction faction = new ClientFaction(id, id);
+        faction.setClaimedChunks(claims);
+        return faction;
+    }
+}
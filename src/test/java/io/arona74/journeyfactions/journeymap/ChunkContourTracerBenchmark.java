@@ -0,0 +1,77 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import journeymap.client.api.util.PolygonHelper;
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * One territory region traced by the built-in tracer and by JourneyMap's PolygonHelper, at 10k
+ * and 100k chunks: a round blob with a ragged edge and a gap in about every 200 chunks.
+ */
+@Tag("benchmark")
+class ChunkContourTracerBenchmark {
+
+    private static final int Y = 64;
+
+    @Test
+    void tracerAgainstPolygonHelper() {
+        System.out.println("chunks  rings  tracer (ms)  PolygonHelper (ms)");
+        for (int size : new int[] {10_000, 100_000}) {
+            ChunkBitmap region = blob(size, new Random(size));
+            int rings = ChunkContourTracer.trace(region, Y).stream().mapToInt(polygon -> 1 + polygon.holes.size()).sum();
+            double tracer = time(() -> ChunkContourTracer.trace(region, Y).size());
+            double helper = time(() -> PolygonHelper.createChunksPolygon(region.asSet(), Y).size());
+            System.out.printf("%6d  %5d  %11.2f  %18.2f%n", region.size(), rings, tracer, helper);
+        }
+    }
+
+    private static ChunkBitmap blob(int size, Random random) {
+        int radius = (int) Math.sqrt(size / Math.PI);
+        Set<ChunkPos> chunks = new HashSet<>();
+        for (int x = -radius - 2; x <= radius + 2; x++) {
+            for (int z = -radius - 2; z <= radius + 2; z++) {
+                double edge = radius + random.nextInt(3) - 1;
+                if (x * x + z * z <= edge * edge) {
+                    chunks.add(new ChunkPos(x, z));
+                }
+            }
+        }
+        for (int i = 0; i < size / 200; i++) {
+            int x = random.nextInt(2 * radius) - radius;
+            int z = random.nextInt(2 * radius) - radius;
+            chunks.remove(new ChunkPos(x, z));
+            if (random.nextBoolean()) {
+                chunks.remove(new ChunkPos(x + 1, z));
+            }
+        }
+        return ChunkBitmap.of(chunks);
+    }
+
+    private interface Run {
+        int run();
+    }
+
+    /**
+     * Mean time per call after one warm-up call, over at least two seconds; a single call is
+     * enough once one takes that long
+     */
+    private static double time(Run run) {
+        int sink = run.run();
+        long start = System.nanoTime();
+        int calls = 0;
+        do {
+            sink += run.run();
+            calls++;
+        } while (System.nanoTime() - start < 2_000_000_000L);
+        if (sink == Integer.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return (System.nanoTime() - start) / 1e6 / calls;
+    }
+}
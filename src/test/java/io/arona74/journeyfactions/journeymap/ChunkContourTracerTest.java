@@ -0,0 +1,302 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import journeymap.client.api.model.MapPolygon;
+import journeymap.client.api.model.MapPolygonWithHoles;
+import journeymap.client.api.util.PolygonHelper;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkContourTracerTest {
+
+    private static final int Y = 64;
+
+    @Test
+    void barKeepsOnlyItsCorners() {
+        List<MapPolygonWithHoles> polygons = ChunkContourTracer.trace(bitmap("###"), Y);
+
+        assertEquals(1, polygons.size());
+        assertEquals(List.of(point(0, 0), point(48, 0), point(48, 16), point(0, 16), point(0, 0)),
+            polygons.get(0).hull.getPoints());
+    }
+
+    @Test
+    void ringAroundAGapHasOneHole() {
+        List<MapPolygonWithHoles> polygons = ChunkContourTracer.trace(bitmap(
+            "###",
+            "#.#",
+            "###"), Y);
+
+        assertEquals(1, polygons.size());
+        assertEquals(1, polygons.get(0).holes.size());
+        assertTrue(signedArea(polygons.get(0).hull) > 0, "outer ring winding");
+        assertTrue(signedArea(polygons.get(0).holes.get(0)) < 0, "hole winding");
+        checkRings(bitmap("###", "#.#", "###"), polygons);
+    }
+
+    @Test
+    void diagonalNeighboursGetSeparateOuterRings() {
+        ChunkBitmap chunks = bitmap(
+            "#.",
+            ".#");
+        List<MapPolygonWithHoles> polygons = ChunkContourTracer.trace(chunks, Y);
+
+        assertEquals(2, polygons.size());
+        checkRings(chunks, polygons);
+    }
+
+    @Test
+    void randomShapesAreWoundMergedAndCovered() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            ChunkBitmap chunks = randomShape(random, 60, false);
+            checkRings(chunks, ChunkContourTracer.trace(chunks, Y));
+        }
+    }
+
+    @Test
+    void ringsMatchPolygonHelper() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            // PolygonHelper and the tracer may split a diagonal pinch differently; leave them out
+            ChunkBitmap chunks = randomShape(random, 40, true);
+            List<MapPolygonWithHoles> traced = ChunkContourTracer.trace(chunks, Y);
+            List<MapPolygonWithHoles> helper = PolygonHelper.createChunksPolygon(chunks.asSet(), Y);
+
+            assertEquals(canonicalRings(helper, false), canonicalRings(traced, false), "outer rings of shape " + i);
+            assertEquals(canonicalRings(helper, true), canonicalRings(traced, true), "holes of shape " + i);
+        }
+    }
+
+    /**
+     * Outer rings wind positive and holes negative (x east, z south), rings are closed, every
+     * vertex is a real corner on the chunk grid, and the rings cover exactly the input chunks
+     */
+    private static void checkRings(ChunkBitmap chunks, List<MapPolygonWithHoles> polygons) {
+        List<MapPolygon> outers = new ArrayList<>();
+        List<MapPolygon> holes = new ArrayList<>();
+        for (MapPolygonWithHoles polygon : polygons) {
+            outers.add(polygon.hull);
+            holes.addAll(polygon.holes);
+            assertTrue(signedArea(polygon.hull) > 0, "outer ring winding");
+            for (MapPolygon hole : polygon.holes) {
+                assertTrue(signedArea(hole) < 0, "hole winding");
+            }
+        }
+        for (MapPolygon ring : concat(outers, holes)) {
+            List<BlockPos> points = ring.getPoints();
+            assertEquals(points.get(0), points.get(points.size() - 1), "ring is closed");
+            int n = points.size() - 1;
+            assertTrue(n >= 4, "ring has at least four corners");
+            for (int i = 0; i < n; i++) {
+                BlockPos previous = points.get((i + n - 1) % n);
+                BlockPos current = points.get(i);
+                BlockPos next = points.get(i + 1);
+                assertEquals(0, current.getX() & 15, "vertex on the chunk grid");
+                assertEquals(0, current.getZ() & 15, "vertex on the chunk grid");
+                long cross = (long) (current.getX() - previous.getX()) * (next.getZ() - current.getZ())
+                    - (long) (current.getZ() - previous.getZ()) * (next.getX() - current.getX());
+                assertTrue(cross != 0, "collinear vertex at " + current);
+            }
+        }
+
+        // Even-odd fill over every ring, sampled at chunk centres
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (ChunkPos chunk : chunks.asSet()) {
+            minX = Math.min(minX, chunk.x);
+            minZ = Math.min(minZ, chunk.z);
+            maxX = Math.max(maxX, chunk.x);
+            maxZ = Math.max(maxZ, chunk.z);
+        }
+        for (int z = minZ - 1; z <= maxZ + 1; z++) {
+            for (int x = minX - 1; x <= maxX + 1; x++) {
+                boolean inside = false;
+                for (MapPolygon ring : concat(outers, holes)) {
+                    inside ^= contains(ring, (x << 4) + 8, (z << 4) + 8);
+                }
+                assertEquals(chunks.contains(x, z), inside, "coverage of chunk " + x + "," + z);
+            }
+        }
+    }
+
+    /**
+     * Rings as sorted strings, independent of winding direction, start point and collinear
+     * points, so tracer and PolygonHelper output can be compared directly
+     */
+    private static List<String> canonicalRings(List<MapPolygonWithHoles> polygons, boolean holes) {
+        List<String> rings = new ArrayList<>();
+        for (MapPolygonWithHoles polygon : polygons) {
+            for (MapPolygon ring : holes ? polygon.holes : List.of(polygon.hull)) {
+                rings.add(canonical(ring.getPoints()));
+            }
+        }
+        Collections.sort(rings);
+        return rings;
+    }
+
+    private static String canonical(List<BlockPos> points) {
+        List<long[]> corners = new ArrayList<>();
+        for (BlockPos point : points) {
+            long[] xz = {point.getX(), point.getZ()};
+            if (corners.isEmpty() || corners.get(corners.size() - 1)[0] != xz[0] || corners.get(corners.size() - 1)[1] != xz[1]) {
+                corners.add(xz);
+            }
+        }
+        if (corners.size() > 1 && corners.get(0)[0] == corners.get(corners.size() - 1)[0]
+            && corners.get(0)[1] == corners.get(corners.size() - 1)[1]) {
+            corners.remove(corners.size() - 1);
+        }
+        boolean removed = true;
+        while (removed && corners.size() > 3) {
+            removed = false;
+            for (int i = 0; i < corners.size(); i++) {
+                long[] a = corners.get((i + corners.size() - 1) % corners.size());
+                long[] b = corners.get(i);
+                long[] c = corners.get((i + 1) % corners.size());
+                if ((b[0] - a[0]) * (c[1] - b[1]) - (b[1] - a[1]) * (c[0] - b[0]) == 0) {
+                    corners.remove(i);
+                    removed = true;
+                    break;
+                }
+            }
+        }
+        long area2 = 0;
+        for (int i = 0; i < corners.size(); i++) {
+            long[] a = corners.get(i);
+            long[] b = corners.get((i + 1) % corners.size());
+            area2 += a[0] * b[1] - b[0] * a[1];
+        }
+        if (area2 < 0) {
+            Collections.reverse(corners);
+        }
+        int first = 0;
+        for (int i = 1; i < corners.size(); i++) {
+            long[] c = corners.get(i);
+            long[] f = corners.get(first);
+            if (c[1] < f[1] || (c[1] == f[1] && c[0] < f[0])) {
+                first = i;
+            }
+        }
+        Collections.rotate(corners, -first);
+        StringBuilder out = new StringBuilder();
+        for (long[] c : corners) {
+            out.append(c[0]).append(',').append(c[1]).append(' ');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Blob of overlapping rectangles with a few rectangular gaps cut out. With {@code noPinches}
+     * every 2x2 block whose claims only touch diagonally is filled in.
+     */
+    static ChunkBitmap randomShape(Random random, int size, boolean noPinches) {
+        Set<ChunkPos> chunks = new HashSet<>();
+        for (int r = 0; r < 3 + random.nextInt(6); r++) {
+            int x0 = random.nextInt(size), z0 = random.nextInt(size);
+            int x1 = Math.min(size, x0 + 1 + random.nextInt(size / 2)), z1 = Math.min(size, z0 + 1 + random.nextInt(size / 2));
+            for (int x = x0; x < x1; x++) {
+                for (int z = z0; z < z1; z++) {
+                    chunks.add(new ChunkPos(x, z));
+                }
+            }
+        }
+        for (int r = 0; r < random.nextInt(6); r++) {
+            int x0 = random.nextInt(size), z0 = random.nextInt(size);
+            int x1 = x0 + 1 + random.nextInt(4), z1 = z0 + 1 + random.nextInt(4);
+            for (int x = x0; x < x1; x++) {
+                for (int z = z0; z < z1; z++) {
+                    chunks.remove(new ChunkPos(x, z));
+                }
+            }
+        }
+        // Scattered single chunks and single gaps
+        for (int r = 0; r < size; r++) {
+            ChunkPos chunk = new ChunkPos(random.nextInt(size), random.nextInt(size));
+            if (!chunks.remove(chunk)) {
+                chunks.add(chunk);
+            }
+        }
+        if (noPinches) {
+            fillPinches(chunks, size);
+        }
+        return ChunkBitmap.of(chunks);
+    }
+
+    private static void fillPinches(Set<ChunkPos> chunks, int size) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int x = -1; x <= size; x++) {
+                for (int z = -1; z <= size; z++) {
+                    boolean a = chunks.contains(new ChunkPos(x, z));
+                    boolean b = chunks.contains(new ChunkPos(x + 1, z));
+                    boolean c = chunks.contains(new ChunkPos(x, z + 1));
+                    boolean d = chunks.contains(new ChunkPos(x + 1, z + 1));
+                    if (a == d && b == c && a != b) {
+                        chunks.add(new ChunkPos(x, z));
+                        chunks.add(new ChunkPos(x + 1, z));
+                        chunks.add(new ChunkPos(x, z + 1));
+                        chunks.add(new ChunkPos(x + 1, z + 1));
+                        changed = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static ChunkBitmap bitmap(String... rows) {
+        Set<ChunkPos> chunks = new HashSet<>();
+        for (int z = 0; z < rows.length; z++) {
+            for (int x = 0; x < rows[z].length(); x++) {
+                if (rows[z].charAt(x) == '#') {
+                    chunks.add(new ChunkPos(x, z));
+                }
+            }
+        }
+        return ChunkBitmap.of(chunks);
+    }
+
+    private static BlockPos point(int x, int z) {
+        return new BlockPos(x, Y, z);
+    }
+
+    private static long signedArea(MapPolygon ring) {
+        List<BlockPos> points = ring.getPoints();
+        long area2 = 0;
+        for (int i = 0; i + 1 < points.size(); i++) {
+            area2 += (long) points.get(i).getX() * points.get(i + 1).getZ() - (long) points.get(i + 1).getX() * points.get(i).getZ();
+        }
+        return area2;
+    }
+
+    private static boolean contains(MapPolygon ring, double x, double z) {
+        List<BlockPos> points = ring.getPoints();
+        boolean inside = false;
+        for (int i = 0, j = points.size() - 1; i < points.size(); j = i++) {
+            BlockPos a = points.get(i);
+            BlockPos b = points.get(j);
+            if ((a.getZ() > z) != (b.getZ() > z)
+                && x < (double) (b.getX() - a.getX()) * (z - a.getZ()) / (b.getZ() - a.getZ()) + a.getX()) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static List<MapPolygon> concat(List<MapPolygon> a, List<MapPolygon> b) {
+        List<MapPolygon> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+}
@@ -0,0 +1,64 @@
+package io.arona74.journeyfactions.journeymap;
+
+import io.arona74.journeyfactions.config.JourneyFactionsConfig;
+import io.arona74.journeyfactions.data.ChunkBitmap;
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerritoryGeometryTest {
+
+    private static final TerritoryGeometry.Settings SETTINGS = new TerritoryGeometry.Settings(
+        JourneyFactionsConfig.PolygonBuilder.CONTOUR_TRACER, false, JourneyFactionsConfig.LabelAnchorMode.HULL_CENTROID);
+
+    @Test
+    void incrementalBuildsMatchFullBuilds() {
+        Random random = new Random(11);
+        int reused = 0;
+        for (TerritoryLod lod : TerritoryLod.values()) {
+            int cellShift = lod.getCellShift();
+            for (int shape = 0; shape < 20; shape++) {
+                ChunkBitmap chunks = ChunkContourTracerTest.randomShape(random, 96, false).mutableCopy();
+                // Cells kept current chunk by chunk, the way the overlay manager does
+                ChunkBitmap cells = chunks.coarsen(cellShift);
+                TerritoryGeometry.Result result = TerritoryGeometry.build(cells.mutableCopy().freeze(), lod, null, null, SETTINGS);
+                for (int step = 0; step < 10; step++) {
+                    ChunkBitmap touched = new ChunkBitmap();
+                    for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                        int x = random.nextInt(96), z = random.nextInt(96);
+                        if (!chunks.remove(x, z)) {
+                            chunks.add(x, z);
+                        }
+                        if (chunks.anyInCell(x >> cellShift, z >> cellShift, cellShift)) {
+                            cells.add(x >> cellShift, z >> cellShift);
+                        } else {
+                            cells.remove(x >> cellShift, z >> cellShift);
+                        }
+                        touched.add(x >> cellShift, z >> cellShift);
+                    }
+                    result = TerritoryGeometry.build(cells.mutableCopy().freeze(), lod, result, touched.freeze(), SETTINGS);
+                    reused += result.getRegions().size() - result.getRebuiltCount();
+
+                    ChunkBitmap freshCells = chunks.coarsen(cellShift).freeze();
+                    TerritoryGeometry.Result full = TerritoryGeometry.build(freshCells, lod, null, null, SETTINGS);
+                    assertEquals(regionCells(full), regionCells(result), lod + " shape " + shape + " step " + step);
+                }
+            }
+        }
+        assertTrue(reused > 0, "no region was ever reused");
+    }
+
+    private static Set<Set<ChunkPos>> regionCells(TerritoryGeometry.Result result) {
+        Set<Set<ChunkPos>> regions = new HashSet<>();
+        for (TerritoryRegion region : result.getRegions()) {
+            regions.add(new HashSet<>(region.getChunks().asSet()));
+        }
+        return regions;
+    }
+}